@@ -0,0 +1,77 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pseuco.cp23.simulation.common.InfectionKernel;
+import com.pseuco.cp23.simulation.common.Person;
+import com.pseuco.cp23.simulation.common.PrefixSumInfectionKernel;
+import com.pseuco.cp23.simulation.common.ScalarInfectionKernel;
+import com.pseuco.cp23.simulation.slug.Slug;
+
+/**
+ * Measures the kernels spreading the infection within a population.
+ *
+ * <p>
+ * The population is recreated for every invocation as the kernels infect persons. The
+ * pairwise kernel is vectorized as its fork adds the <em>jdk.incubator.vector</em> module.
+ * The default kernel chooses between the pairwise and the prefix sum kernel per tick.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InfectionBenchmark {
+    private List<Person> population;
+
+    private final InfectionKernel scalar = new ScalarInfectionKernel();
+    private final InfectionKernel kernel = InfectionKernel.create();
+    private final InfectionKernel pairwise = InfectionKernel.createPairwise();
+    private final InfectionKernel prefixSum = new PrefixSumInfectionKernel();
+
+    @Setup(Level.Invocation)
+    public void setup(ScenarioState state) {
+        this.population = new Slug(state.scenario).getPopulation();
+    }
+
+    @Benchmark
+    public List<Person> scalarKernel(ScenarioState state) {
+        this.scalar.spread(this.population, state.infectionRadius);
+        return this.population;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+    public List<Person> defaultKernel(ScenarioState state) {
+        this.kernel.spread(this.population, state.infectionRadius);
+        return this.population;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+    public List<Person> pairwiseKernel(ScenarioState state) {
+        this.pairwise.spread(this.population, state.infectionRadius);
+        return this.population;
+    }
+
+    @Benchmark
+    public List<Person> prefixSumKernel(ScenarioState state) {
+        this.prefixSum.spread(this.population, state.infectionRadius);
+        return this.population;
+    }
+}
@@ -0,0 +1,54 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pseuco.cp23.simulation.common.Person;
+import com.pseuco.cp23.simulation.slug.Slug;
+
+/**
+ * Measures <em>Person.tick</em>, i.e., movement including the collision checks.
+ *
+ * <p>
+ * The persons move on with every invocation, hence, the population is recreated for every
+ * iteration such that all iterations start from the scenario.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonBenchmark {
+    private Slug slug;
+
+    @Setup(Level.Iteration)
+    public void setup(ScenarioState state) {
+        this.slug = new Slug(state.scenario);
+    }
+
+    @Benchmark
+    public int tickPopulation() {
+        int moved = 0;
+        for (Person person : this.slug.getPopulation()) {
+            person.tick();
+            if (person.hasGhost() && !person.getGhostPosition().equals(person.getPosition())) {
+                moved++;
+            }
+        }
+        this.slug.getPopulation().forEach(Person::bustGhost);
+        return moved;
+    }
+}
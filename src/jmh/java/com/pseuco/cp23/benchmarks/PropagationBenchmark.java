@@ -0,0 +1,54 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.simulation.common.Utils;
+
+/**
+ * Measures <em>Utils.mayPropagateFrom</em> between all pairs of patches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class PropagationBenchmark {
+    private final List<Rectangle> patches = new ArrayList<>();
+
+    @Setup
+    public void setup(ScenarioState state) {
+        final Iterator<Rectangle> iterator = com.pseuco.cp23.simulation.rocket.Utils.getPatches(state.scenario);
+        while (iterator.hasNext()) {
+            this.patches.add(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public int mayPropagateFrom(ScenarioState state) {
+        int propagating = 0;
+        for (Rectangle source : this.patches) {
+            for (Rectangle target : this.patches) {
+                if (source != target && Utils.mayPropagateFrom(state.scenario, source, target)) {
+                    propagating++;
+                }
+            }
+        }
+        return propagating;
+    }
+}
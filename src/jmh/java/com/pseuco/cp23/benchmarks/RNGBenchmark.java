@@ -0,0 +1,55 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pseuco.cp23.model.Direction;
+import com.pseuco.cp23.model.Parameters;
+import com.pseuco.cp23.simulation.common.Person;
+
+/**
+ * Measures <em>Person.RNG.tick</em> and the decisions derived from a digest.
+ *
+ * <p>
+ * The RNG does not depend on the scenario, hence this benchmark is not parameterized.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RNGBenchmark {
+    private Person.RNG rng;
+
+    @Setup
+    public void setup() {
+        this.rng = new Person.RNG(new byte[32], new Parameters(20, 150, 20, 140, 5, 3));
+    }
+
+    @Benchmark
+    public Person.RNG tick() {
+        this.rng.tick();
+        return this.rng;
+    }
+
+    @Benchmark
+    public Direction tickAndDecide() {
+        this.rng.tick();
+        if (this.rng.isCoughing() && this.rng.isBreathing()) {
+            return Direction.NONE;
+        }
+        return this.rng.getAcceleration();
+    }
+}
@@ -0,0 +1,65 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.XY;
+
+/**
+ * Measures <em>Rectangle.contains</em> as used by the obstacle check when moving.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RectangleBenchmark {
+    // the positions one step diagonally ahead, created up front to only measure the checks
+    private XY[] steps;
+
+    @Setup
+    public void setup(ScenarioState state) {
+        this.steps = state.scenario.getPopulation().stream()
+                .map(person -> person.getPosition().add(1, 1))
+                .toArray(XY[]::new);
+    }
+
+    @Benchmark
+    public int obstacleChecks(ScenarioState state) {
+        int blocked = 0;
+        for (PersonInfo person : state.scenario.getPopulation()) {
+            for (Rectangle obstacle : state.scenario.getObstacles()) {
+                if (obstacle.contains(person.getPosition())) {
+                    blocked++;
+                    break;
+                }
+            }
+        }
+        return blocked;
+    }
+
+    @Benchmark
+    public int gridChecks(ScenarioState state) {
+        final Rectangle grid = state.scenario.getGrid();
+        int inside = 0;
+        for (XY step : this.steps) {
+            if (grid.contains(step)) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+}
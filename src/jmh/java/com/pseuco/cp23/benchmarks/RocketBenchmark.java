@@ -0,0 +1,105 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Partition;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+/**
+ * Measures whole runs of the rocket on the public scenarios with platform and virtual
+ * threads as patches.
+ *
+ * <p>
+ * The scenarios are read from <em>src/test/resources/scenarios/public</em> relative to
+ * the working directory. With <em>patchesPerAxis</em> the scenario's partition is
+ * replaced by a uniform one, e.g., 10 yields 100 patches.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class RocketBenchmark {
+    @Param({ "we_love_np", "Minimal Example", "Medium Size", "Large Size" })
+    public String scenarioName;
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    @Param({ "0", "10" })
+    public int patchesPerAxis;
+
+    @Param({ "10" })
+    public int padding;
+
+    private Scenario scenario;
+
+    private Rocket rocket;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        this.scenario = new ObjectMapper().readValue(
+                new File("src/test/resources/scenarios/public", this.scenarioName + ".json"), Scenario.class
+        );
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() throws InsufficientPaddingException {
+        // the rocket must not see the partition of a previous invocation
+        final Partition partition = this.patchesPerAxis == 0
+                ? new Partition(
+                        new ArrayList<>(this.scenario.getPartition().getX()),
+                        new ArrayList<>(this.scenario.getPartition().getY()))
+                : new Partition(
+                        cuts(this.scenario.getGridSize().getX(), this.patchesPerAxis),
+                        cuts(this.scenario.getGridSize().getY(), this.patchesPerAxis));
+        final Scenario partitioned = new Scenario(
+                this.scenario.getName(), this.scenario.getParameters(), this.scenario.getTicks(),
+                this.scenario.getGridSize(), this.scenario.getTrace(), partition,
+                this.scenario.getObstacles(), this.scenario.getQueries(), this.scenario.getPopulation()
+        );
+        this.rocket = new Rocket(partitioned, this.padding, new DummyValidator());
+        if (this.threads.equals("virtual")) {
+            this.rocket.enableVirtualThreads();
+        }
+    }
+
+    private static List<Integer> cuts(int size, int patches) {
+        final int count = Math.min(patches, size);
+        final List<Integer> cuts = new ArrayList<>();
+        for (int i = 1; i < count; i++) {
+            cuts.add((int) ((long) size * i / count));
+        }
+        return cuts;
+    }
+
+    @Benchmark
+    public Output run() {
+        this.rocket.run();
+        return this.rocket.getOutput();
+    }
+}
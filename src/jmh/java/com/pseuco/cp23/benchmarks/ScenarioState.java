@@ -0,0 +1,95 @@
+package com.pseuco.cp23.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pseuco.cp23.model.Direction;
+import com.pseuco.cp23.model.InfectionState;
+import com.pseuco.cp23.model.Parameters;
+import com.pseuco.cp23.model.Partition;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.XY;
+
+/**
+ * A randomly generated scenario shared by the benchmarks.
+ *
+ * <p>
+ * The scenario is square and split into four patches. It is generated from a fixed
+ * seed so that all runs with the same parameters measure the same scenario.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class ScenarioState {
+    @Param({ "50", "200" })
+    public int gridSize;
+
+    @Param({ "0.01", "0.05", "0.2" })
+    public double density;
+
+    @Param({ "1", "5", "15" })
+    public int infectionRadius;
+
+    @Param({ "0", "20", "100" })
+    public int obstacles;
+
+    public Scenario scenario;
+
+    @Setup
+    public void generate() {
+        final Random random = new Random(42);
+        final XY size = new XY(this.gridSize, this.gridSize);
+
+        final List<Rectangle> obstacles = new ArrayList<>();
+        for (int i = 0; i < this.obstacles; i++) {
+            final XY topLeft = new XY(random.nextInt(this.gridSize), random.nextInt(this.gridSize));
+            final XY extent = new XY(1 + random.nextInt(5), 1 + random.nextInt(5));
+            obstacles.add(new Rectangle(topLeft, extent));
+        }
+
+        final Parameters parameters = new Parameters(20, 150, 20, 140, this.infectionRadius, 3);
+        final Scenario grid = new Scenario(
+                "benchmark", parameters, 0, size, false,
+                new Partition(List.of(), List.of()), obstacles, new HashMap<>(), List.of()
+        );
+
+        final List<PersonInfo> population = new ArrayList<>();
+        final Set<XY> occupied = new HashSet<>();
+        final int persons = (int) (this.density * this.gridSize * this.gridSize);
+        for (int attempt = 0; population.size() < persons && attempt < 10 * persons; attempt++) {
+            final XY position = new XY(random.nextInt(this.gridSize), random.nextInt(this.gridSize));
+            if (grid.onObstacle(position) || !occupied.add(position)) {
+                continue;
+            }
+            final byte[] seed = new byte[32];
+            random.nextBytes(seed);
+            final InfectionState.State state = random.nextInt(10) == 0
+                    ? InfectionState.State.INFECTIOUS
+                    : InfectionState.State.SUSCEPTIBLE;
+            population.add(new PersonInfo(
+                    "Person #" + population.size(),
+                    position,
+                    seed,
+                    new InfectionState(state, 0),
+                    Direction.values()[random.nextInt(Direction.values().length)]
+            ));
+        }
+
+        final int half = this.gridSize / 2;
+        this.scenario = new Scenario(
+                "benchmark", parameters, 0, size, false,
+                new Partition(new ArrayList<>(List.of(half)), new ArrayList<>(List.of(half))),
+                obstacles, new HashMap<>(), population
+        );
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * JMH microbenchmarks for the simulation kernels.
+ *
+ * <p>
+ * Run them with <em>./gradlew jmh</em>. Arguments are passed to JMH with
+ * <em>-PjmhArgs</em>, e.g., to select benchmarks or to restrict parameters.
+ * </p>
+ */
+package com.pseuco.cp23.benchmarks;
@@ -2,6 +2,11 @@ package com.pseuco.cp23;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.Flow;
 
 import com.beust.jcommander.IStringConverter;
 import com.beust.jcommander.JCommander;
@@ -9,11 +14,22 @@ import com.beust.jcommander.Parameter;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.metrics.MetricsServer;
+import com.pseuco.cp23.metrics.RocketMetrics;
+import com.pseuco.cp23.metrics.TimelineRecorder;
+import com.pseuco.cp23.model.Output;
 import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.TickResult;
+import com.pseuco.cp23.output.NdjsonSink;
+import com.pseuco.cp23.output.OutputFiles;
+import com.pseuco.cp23.output.PipelinedOutputWriter;
+import com.pseuco.cp23.simulation.auto.Calibration;
+import com.pseuco.cp23.simulation.auto.Candidate;
 import com.pseuco.cp23.simulation.common.Simulation;
 import com.pseuco.cp23.simulation.rocket.Rocket;
 import com.pseuco.cp23.simulation.rocket.Starship;
 import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.trace.DeltaTrace;
 import com.pseuco.cp23.validator.DummyValidator;
 import com.pseuco.cp23.validator.InsufficientPaddingException;
 
@@ -31,7 +47,8 @@ public class Simulator {
     @Parameter(names = "--scenario", required = true, converter = FileConverter.class)
     private File scenarioFile;
 
-    @Parameter(names = "--out", required = true, converter = FileConverter.class)
+    @Parameter(names = "--out", required = true, converter = FileConverter.class,
+            description = "The output file, compressed with gzip if its name ends with `.gz`.")
     private File outputFile;
 
     @Parameter(names = "--padding")
@@ -43,9 +60,72 @@ public class Simulator {
     @Parameter(names = "--rocket")
     private boolean rocket = false;
 
+    @Parameter(names = "--result-window",
+            description = "The number of ticks each patch of the rocket may have in flight to the aggregation.")
+    private int resultWindow = Rocket.DEFAULT_RESULT_WINDOW;
+
     @Parameter(names = "--starship")
     private boolean starship = false;
 
+    @Parameter(names = "--auto",
+            description = "Choose the engine and padding with a short calibration run, the other options of the engines apply.")
+    private boolean auto = false;
+
+    @Parameter(names = "--calibration-ticks", description = "The number of ticks of the shorter calibration run of --auto.")
+    private int calibrationTicks = Calibration.DEFAULT_TICKS;
+
+    @Parameter(names = "--warp-window", description = "The number of ticks the starship's patches may run ahead.")
+    private int warpWindow = Starship.DEFAULT_WINDOW;
+
+    @Parameter(names = "--metrics", description = "Write runtime metrics of the rocket next to the output.")
+    private boolean metrics = false;
+
+    @Parameter(names = "--metrics-port",
+            description = "Serve live metrics of the rocket for Prometheus at /metrics on the port while running.")
+    private Integer metricsPort = null;
+
+    @Parameter(names = "--metrics-host", description = "The address to serve the live metrics on.")
+    private String metricsHost = "127.0.0.1";
+
+    @Parameter(names = "--timeline", converter = FileConverter.class,
+            description = "Write a Chrome trace-event timeline of the rocket's patches to the file.")
+    private File timelineFile = null;
+
+    @Parameter(names = "--overlap", description = "Move the interior of the rocket's patches while their halo is exchanged.")
+    private boolean overlap = false;
+
+    @Parameter(names = "--virtual-threads", description = "Run the rocket's patches as virtual threads.")
+    private boolean virtualThreads = false;
+
+    @Parameter(names = "--compact",
+            description = "Let the rocket's patches only send what the statistics need, requires a scenario without trace.")
+    private boolean compact = false;
+
+    @Parameter(names = "--rng-lookahead",
+            description = "The number of threads hashing the persons' random numbers ahead of the simulation, 0 disables it.")
+    private int rngLookahead = 0;
+
+    @Parameter(names = "--rng-window", description = "The number of random digests buffered per person for the lookahead.")
+    private int rngWindow = 32;
+
+    @Parameter(names = "--output-buffer",
+            description = "The number of ticks which may wait for the output writer, 0 writes the output after the run.")
+    private int outputBuffer = 64;
+
+    @Parameter(names = "--ndjson",
+            description = "Stream the statistics of every tick as JSON lines to standard output while simulating.")
+    private boolean ndjson = false;
+
+    @Parameter(names = "--ndjson-trace", description = "Include the population in the JSON lines.")
+    private boolean ndjsonTrace = false;
+
+    @Parameter(names = "--delta-trace", converter = FileConverter.class,
+            description = "Additionally write the trace delta-encoded to the file.")
+    private File deltaTraceFile = null;
+
+    @Parameter(names = "--keyframe-interval", description = "The number of ticks between keyframes of the delta trace.")
+    private int keyframeInterval = 100;
+
     public static void main(String[] args) throws JsonParseException, JsonMappingException, IOException {
         final Simulator app = new Simulator();
         JCommander.newBuilder().addObject(app).args(args).build();
@@ -57,29 +137,165 @@ public class Simulator {
 
         final Scenario scenario = objectMapper.readValue(this.scenarioFile, Scenario.class);
 
-        System.out.println("Scenario: " + scenario.getName());
-        System.out.println("Ticks: " + scenario.getTicks());
+        // standard output is reserved for the JSON lines
+        final PrintStream log = this.ndjson ? System.err : System.out;
+
+        log.println("Scenario: " + scenario.getName());
+        log.println("Ticks: " + scenario.getTicks());
+
+        if (this.auto) {
+            final Calibration calibration = new Calibration(scenario, this.calibrationTicks);
+            final long calibrationStart = System.nanoTime();
+            final Candidate choice = calibration.select();
+            for (Map.Entry<Candidate, Double> estimate : calibration.getEstimates().entrySet()) {
+                log.println("Estimate: " + estimate.getKey() + " " + Math.round(estimate.getValue()) + "ms");
+            }
+            log.println("Calibration: " + (System.nanoTime() - calibrationStart) / 1000000 + "ms");
+            log.println("Engine: " + choice);
+            this.slug = choice.getEngine() == Candidate.Engine.SLUG;
+            this.rocket = choice.getEngine() == Candidate.Engine.ROCKET;
+            this.starship = choice.getEngine() == Candidate.Engine.STARSHIP;
+            if (!this.slug) {
+                this.padding = choice.getPadding();
+            }
+        }
 
         Simulation simulation;
+        RocketMetrics rocketMetrics = null;
+        TimelineRecorder timeline = null;
+        MetricsServer metricsServer = null;
         if (this.starship) {
-            simulation = new Starship(scenario, this.padding);
+            final Starship starship = new Starship(scenario, this.padding);
+            starship.setWindow(this.warpWindow);
+            simulation = starship;
         } else if (this.rocket) {
             try {
-                simulation = new Rocket(scenario, this.padding, new DummyValidator());
+                final Rocket rocket = new Rocket(scenario, this.padding, new DummyValidator());
+                rocket.setResultWindow(this.resultWindow);
+                if (this.metrics) {
+                    rocketMetrics = rocket.enableMetrics();
+                }
+                if (this.timelineFile != null) {
+                    timeline = rocket.enableTimeline();
+                }
+                if (this.metricsPort != null) {
+                    metricsServer = new MetricsServer(
+                            rocket.enableLiveMetrics(), new InetSocketAddress(this.metricsHost, this.metricsPort)
+                    );
+                    metricsServer.start();
+                    log.println("Metrics: http://" + metricsServer.getAddress().getHostString()
+                            + ":" + metricsServer.getAddress().getPort() + "/metrics");
+                }
+                if (this.overlap) {
+                    rocket.enableOverlap();
+                }
+                if (this.virtualThreads) {
+                    rocket.enableVirtualThreads();
+                }
+                if (this.rngLookahead > 0) {
+                    rocket.enableRngLookahead(this.rngLookahead, this.rngWindow);
+                }
+                if (this.compact) {
+                    rocket.enableCompactResults();
+                }
+                simulation = rocket;
             } catch (InsufficientPaddingException error) {
                 throw new RuntimeException(error);
             }
         } else {
-            simulation = new Slug(scenario);
+            final Slug slug = new Slug(scenario);
+            if (this.rngLookahead > 0) {
+                slug.enableRngLookahead(this.rngLookahead, this.rngWindow);
+            }
+            simulation = slug;
+        }
+
+        final DeltaTrace deltaTrace = this.deltaTraceFile != null ? new DeltaTrace(this.keyframeInterval) : null;
+
+        PipelinedOutputWriter writer = null;
+        if (this.outputBuffer > 0) {
+            writer = new PipelinedOutputWriter(objectMapper, this.outputFile, scenario, this.outputBuffer);
+            if (simulation.setTraceListener(deltaTrace != null ? writer.andThen(deltaTrace) : writer)) {
+                writer.start();
+            } else {
+                writer = null;
+            }
+        }
+
+        NdjsonSink sink = null;
+        if (this.ndjson) {
+            final Flow.Publisher<TickResult> results = simulation.publishResults(this.ndjsonTrace);
+            if (results == null) {
+                throw new IllegalArgumentException("the engine does not publish its results");
+            }
+            sink = new NdjsonSink(objectMapper, System.out, 16);
+            results.subscribe(sink);
         }
 
         final long startTime = System.nanoTime();
-        simulation.run();
+        try {
+            simulation.run();
+        } catch (RuntimeException | Error error) {
+            // the writer thread waits for the end of the trace which never comes otherwise
+            if (writer != null) {
+                try {
+                    writer.abort();
+                } catch (InterruptedException interrupted) {
+                    error.addSuppressed(interrupted);
+                }
+            }
+            // the dispatcher thread of the server would keep the JVM alive and the port bound
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
+            throw error;
+        }
         final long endTime = System.nanoTime();
 
-        System.out.println("Time: " + (endTime - startTime) / 1000000 + "ms");
+        log.println("Time: " + (endTime - startTime) / 1000000 + "ms");
+        if (simulation instanceof Starship starship) {
+            log.println("Rollbacks: " + starship.getRollbacks() + " (" + starship.getRolledBackTicks() + " ticks)");
+        }
+
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+
+        if (writer != null) {
+            try {
+                writer.finish(simulation.getOutput().getStatistics());
+            } catch (InterruptedException error) {
+                throw new RuntimeException(error);
+            }
+        } else {
+            final Output output = simulation.getOutput();
+            objectMapper.writeValue(OutputFiles.create(this.outputFile), output);
+            if (deltaTrace != null) {
+                output.getTrace().forEach(deltaTrace);
+            }
+        }
+
+        if (deltaTrace != null) {
+            try (OutputStream stream = OutputFiles.create(this.deltaTraceFile)) {
+                deltaTrace.write(stream);
+            }
+        }
 
-        objectMapper.writeValue(this.outputFile, simulation.getOutput());
+        if (rocketMetrics != null) {
+            rocketMetrics.write(new File(this.outputFile.getPath() + ".metrics.json"));
+        }
+        if (timeline != null) {
+            timeline.write(this.timelineFile);
+        }
+
+        if (sink != null) {
+            try {
+                sink.checkError();
+            } catch (IOException error) {
+                // e.g., the consumer closed the pipe, the output covers the ticks simulated so far
+                log.println("Stopped streaming: " + error.getMessage());
+            }
+        }
     }
 
 }
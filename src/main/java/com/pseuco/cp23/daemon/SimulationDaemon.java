@@ -0,0 +1,264 @@
+package com.pseuco.cp23.daemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.generator.ScenarioGenerator;
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.rocket.PatchLayout;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A long-lived process simulating scenarios posted over HTTP.
+ *
+ * <p>
+ * Every invocation of the <em>Simulator</em> pays for starting the JVM, for Jackson's
+ * introspection of the model and for running cold code. The daemon pays for this once:
+ * it shares one object mapper between all jobs, runs on a warmed-up JIT and caches the
+ * patch layouts of the rocket, i.e., the k value, the obstacles of each padding and the
+ * neighbours of each patch, keyed by the hash of the scenario's geometry and parameters.
+ * </p>
+ *
+ * <p>
+ * The daemon serves the following endpoints:
+ * </p>
+ * <ul>
+ * <li><em>POST /simulate?engine=rocket&amp;padding=10</em> simulates the scenario in the
+ * request body with the <em>slug</em> or the <em>rocket</em> and responds with the output.
+ * Invalid scenarios and insufficient paddings are answered with 400.</li>
+ * <li><em>GET /status</em> responds with the number of completed jobs and the statistics of
+ * the layout cache.</li>
+ * </ul>
+ */
+public class SimulationDaemon {
+    @Parameter(names = "--host", description = "The address to listen on, only local clients by default.")
+    private String host = "127.0.0.1";
+
+    @Parameter(names = "--port", description = "The port to listen on, 0 picks a free one.")
+    private int port = 8023;
+
+    @Parameter(names = "--jobs", description = "The number of jobs simulated concurrently.")
+    private int jobs = 1;
+
+    @Parameter(names = "--cached-layouts", description = "The number of patch layouts kept in the cache.")
+    private int cachedLayouts = 64;
+
+    @Parameter(names = "--warmup", arity = 1, description = "Simulate a generated scenario before accepting jobs.")
+    private boolean warmup = true;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private PatchLayout.Cache layouts;
+    private Semaphore running;
+    private ExecutorService executor;
+    private HttpServer server;
+
+    /**
+     * Constructs a daemon configured by the given command line arguments.
+     *
+     * @param args The command line arguments.
+     * @return The configured daemon.
+     */
+    public static SimulationDaemon fromArgs(String... args) {
+        final SimulationDaemon daemon = new SimulationDaemon();
+        JCommander.newBuilder().addObject(daemon).args(args).build();
+        return daemon;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final SimulationDaemon daemon = fromArgs(args);
+        daemon.start();
+        System.out.println("Listening on http://" + daemon.getAddress().getHostString()
+                + ":" + daemon.getAddress().getPort());
+    }
+
+    /**
+     * Warms up the engines if enabled and starts accepting jobs.
+     *
+     * @throws IOException If the server cannot be bound.
+     */
+    public void start() throws IOException {
+        if (this.jobs < 1) {
+            throw new IllegalArgumentException("at least one job must be allowed");
+        }
+        this.layouts = new PatchLayout.Cache(this.cachedLayouts);
+        this.running = new Semaphore(this.jobs);
+        if (this.warmup) {
+            this.warmup();
+        }
+
+        // requests merely wait for a permit, hence, a virtual thread per request suffices
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(this.host, this.port), 0);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/simulate", this::simulate);
+        this.server.createContext("/status", this::status);
+        this.server.start();
+    }
+
+    /**
+     * Stops accepting jobs and waits at most the given time for running jobs.
+     *
+     * @param delay The maximal time to wait in seconds.
+     */
+    public void stop(int delay) {
+        this.server.stop(delay);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * @return The address the daemon listens on.
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    private void warmup() throws IOException {
+        final ByteArrayOutputStream scenario = new ByteArrayOutputStream();
+        ScenarioGenerator.fromArgs("--persons", "500", "--ticks", "200", "--trace", "true").write(scenario);
+        for (String engine : new String[] { "slug", "rocket" }) {
+            try {
+                final Simulation simulation = this.create(
+                        engine, this.objectMapper.readValue(scenario.toByteArray(), Scenario.class), 10
+                );
+                simulation.run();
+                this.objectMapper.writeValueAsBytes(simulation.getOutput());
+            } catch (InsufficientPaddingException error) {
+                throw new IllegalStateException(error);
+            }
+        }
+    }
+
+    private Simulation create(String engine, Scenario scenario, int padding) throws InsufficientPaddingException {
+        switch (engine) {
+            case "slug":
+                return new Slug(scenario);
+            case "rocket":
+                return new Rocket(scenario, this.layouts.get(scenario, padding), new DummyValidator());
+            default:
+                throw new IllegalArgumentException("unknown engine `" + engine + "`");
+        }
+    }
+
+    private void simulate(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                this.respond(exchange, 405, "expected POST");
+                return;
+            }
+            final Simulation simulation;
+            try {
+                final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                final int padding = Integer.parseInt(query.getOrDefault("padding", "10"));
+                final Scenario scenario = this.objectMapper.readValue(exchange.getRequestBody(), Scenario.class);
+                simulation = this.create(query.getOrDefault("engine", "rocket"), scenario, padding);
+            } catch (JsonProcessingException error) {
+                this.respond(exchange, 400, "invalid scenario: " + error.getOriginalMessage());
+                return;
+            } catch (InsufficientPaddingException error) {
+                this.respond(exchange, 400, "insufficient padding " + error.getPadding());
+                return;
+            } catch (IllegalArgumentException error) {
+                this.respond(exchange, 400, error.getMessage());
+                return;
+            } catch (RuntimeException error) {
+                // e.g., a scenario lacking a partition
+                this.respond(exchange, 400, "invalid scenario: " + error);
+                return;
+            }
+
+            final Output output;
+            final long startTime;
+            try {
+                this.running.acquire();
+                try {
+                    startTime = System.nanoTime();
+                    simulation.run();
+                    output = simulation.getOutput();
+                } finally {
+                    this.running.release();
+                }
+            } catch (InterruptedException error) {
+                this.respond(exchange, 503, "shutting down");
+                return;
+            } catch (RuntimeException error) {
+                this.respond(exchange, 500, "simulation failed: " + error);
+                return;
+            }
+
+            // count the job before responding, a client may ask for the status as soon as it has the output
+            this.completed.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set(
+                    "X-Simulation-Time", Long.toString((System.nanoTime() - startTime) / 1000000)
+            );
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                this.objectMapper.writeValue(body, output);
+            }
+        }
+    }
+
+    private void status(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            final Map<String, Object> status = new LinkedHashMap<>();
+            status.put("completedJobs", this.completed.get());
+            status.put("cachedLayouts", this.layouts.size());
+            status.put("layoutHits", this.layouts.getHits());
+            status.put("layoutMisses", this.layouts.getMisses());
+            final byte[] body = this.objectMapper.writeValueAsBytes(status);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int code, String message) throws IOException {
+        final byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(code, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            final int separator = parameter.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("parameter `" + parameter + "` has no value");
+            }
+            parameters.put(
+                    URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8)
+            );
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * A long-lived simulation process accepting jobs over HTTP.
+ */
+package com.pseuco.cp23.daemon;
@@ -0,0 +1,346 @@
+package com.pseuco.cp23.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pseuco.cp23.model.Direction;
+import com.pseuco.cp23.model.InfectionState;
+import com.pseuco.cp23.model.Parameters;
+import com.pseuco.cp23.model.Partition;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Query;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.XY;
+
+/**
+ * Generates valid scenarios with a configurable size and layout.
+ *
+ * <p>
+ * The generated scenario is fully determined by the options including the seed. The
+ * population is streamed to the output, hence, scenarios with millions of persons can be
+ * generated without materializing a <em>Scenario</em>. Persons are placed on distinct
+ * cells which are not covered by an obstacle.
+ * </p>
+ */
+public class ScenarioGenerator {
+    /**
+     * The layouts the generator supports.
+     */
+    public enum Profile {
+        /**
+         * Persons and obstacles are spread uniformly over the grid.
+         */
+        UNIFORM,
+        /**
+         * All persons are placed in the top-left patch.
+         */
+        SINGLE_PATCH,
+        /**
+         * The grid is covered with a checkerboard of square walls.
+         */
+        CHECKERBOARD,
+        /**
+         * Like <em>UNIFORM</em> but every person starts infectious.
+         */
+        ALL_INFECTIOUS
+    }
+
+    @Parameter(names = "--out", description = "The file to write to, `-` for standard output.")
+    private String out = "-";
+
+    @Parameter(names = "--seed")
+    private long seed = 0;
+
+    @Parameter(names = "--name")
+    private String name = "Generated";
+
+    @Parameter(names = "--profile")
+    private Profile profile = Profile.UNIFORM;
+
+    @Parameter(names = "--persons")
+    private int persons = 1000;
+
+    @Parameter(names = "--width")
+    private int width = 200;
+
+    @Parameter(names = "--height")
+    private int height = 100;
+
+    @Parameter(names = "--patches-x", description = "The number of patches along the x-axis.")
+    private int patchesX = 2;
+
+    @Parameter(names = "--patches-y", description = "The number of patches along the y-axis.")
+    private int patchesY = 2;
+
+    @Parameter(names = "--obstacles", description = "The number of random obstacles.")
+    private int obstacles = 0;
+
+    @Parameter(names = "--wall-size", description = "The size of the walls of the checkerboard.")
+    private int wallSize = 4;
+
+    @Parameter(names = "--queries")
+    private int queries = 1;
+
+    @Parameter(names = "--ticks")
+    private int ticks = 100;
+
+    @Parameter(names = "--trace", arity = 1)
+    private boolean trace = false;
+
+    @Parameter(names = "--infected", description = "The share of initially infected persons.")
+    private double infected = 0.01;
+
+    @Parameter(names = "--cough-threshold")
+    private int coughThreshold = 20;
+
+    @Parameter(names = "--breath-threshold")
+    private int breathThreshold = 150;
+
+    @Parameter(names = "--acceleration-divisor")
+    private int accelerationDivisor = 20;
+
+    @Parameter(names = "--recovery-time")
+    private int recoveryTime = 140;
+
+    @Parameter(names = "--infection-radius")
+    private int infectionRadius = 5;
+
+    @Parameter(names = "--incubation-time")
+    private int incubationTime = 3;
+
+    /**
+     * Constructs a generator configured by the given command line arguments.
+     *
+     * @param args The command line arguments.
+     * @return The configured generator.
+     */
+    public static ScenarioGenerator fromArgs(String... args) {
+        final ScenarioGenerator generator = new ScenarioGenerator();
+        JCommander.newBuilder().addObject(generator).args(args).build();
+        return generator;
+    }
+
+    public static void main(String[] args) throws IOException {
+        fromArgs(args).run();
+    }
+
+    public void run() throws IOException {
+        if (this.out.equals("-")) {
+            this.write(System.out);
+            System.out.flush();
+        } else {
+            try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(this.out), 1 << 16)) {
+                this.write(stream);
+            }
+        }
+    }
+
+    /**
+     * Writes the scenario as JSON to the given stream.
+     *
+     * @param stream The stream to write to. The stream is not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    public void write(OutputStream stream) throws IOException {
+        if (this.width < 1 || this.height < 1 || this.patchesX < 1 || this.patchesY < 1) {
+            throw new IllegalArgumentException("grid and partition must not be empty");
+        }
+        if (this.patchesX > this.width || this.patchesY > this.height) {
+            throw new IllegalArgumentException("more patches than cells along an axis");
+        }
+        if ((long) this.width * this.height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("grids are limited to " + Integer.MAX_VALUE + " cells");
+        }
+
+        final SplittableRandom random = new SplittableRandom(this.seed);
+
+        final Partition partition = new Partition(
+                cuts(this.width, this.patchesX), cuts(this.height, this.patchesY)
+        );
+        final List<Rectangle> obstacles = this.generateObstacles(random.split());
+        final BitSet blocked = new BitSet(this.width * this.height);
+        for (Rectangle obstacle : obstacles) {
+            for (XY cell : obstacle) {
+                blocked.set(this.index(cell.getX(), cell.getY()));
+            }
+        }
+
+        final ObjectMapper objectMapper = new ObjectMapper()
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final JsonGenerator generator = objectMapper.getFactory().createGenerator(stream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartObject();
+        generator.writeStringField("name", this.name);
+        generator.writeObjectField("parameters", new Parameters(
+                this.coughThreshold,
+                this.breathThreshold,
+                this.accelerationDivisor,
+                this.recoveryTime,
+                this.infectionRadius,
+                this.incubationTime
+        ));
+        generator.writeNumberField("ticks", this.ticks);
+        generator.writeObjectField("gridSize", new XY(this.width, this.height));
+        generator.writeBooleanField("trace", this.trace);
+        generator.writeObjectField("partition", partition);
+        generator.writeObjectField("obstacles", obstacles);
+
+        final SplittableRandom queryRandom = random.split();
+        generator.writeObjectFieldStart("statQueries");
+        for (int i = 0; i < this.queries; i++) {
+            generator.writeObjectField("query" + i, new Query(this.randomArea(queryRandom)));
+        }
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("population");
+        final Rectangle area = this.profile == Profile.SINGLE_PATCH
+                ? new Rectangle(XY.ZERO, new XY(firstCut(partition.getX(), this.width),
+                        firstCut(partition.getY(), this.height)))
+                : new Rectangle(XY.ZERO, new XY(this.width, this.height));
+        final SplittableRandom personRandom = random.split();
+        final int[] cells = this.placePersons(random.split(), area, blocked);
+        for (int id = 0; id < cells.length; id++) {
+            generator.writeObject(this.generatePerson(personRandom, id, cells[id]));
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private int index(int x, int y) {
+        return y * this.width + x;
+    }
+
+    private static List<Integer> cuts(int size, int patches) {
+        final List<Integer> cuts = new ArrayList<>();
+        for (int i = 1; i < patches; i++) {
+            cuts.add((int) ((long) size * i / patches));
+        }
+        return cuts;
+    }
+
+    private static int firstCut(List<Integer> cuts, int size) {
+        return cuts.isEmpty() ? size : cuts.get(0);
+    }
+
+    private Rectangle randomArea(SplittableRandom random) {
+        final int x = random.nextInt(this.width);
+        final int y = random.nextInt(this.height);
+        return new Rectangle(
+            new XY(x, y), new XY(1 + random.nextInt(this.width - x), 1 + random.nextInt(this.height - y))
+        );
+    }
+
+    private List<Rectangle> generateObstacles(SplittableRandom random) {
+        final List<Rectangle> obstacles = new ArrayList<>();
+        if (this.profile == Profile.CHECKERBOARD) {
+            if (this.wallSize < 1) {
+                throw new IllegalArgumentException("walls must not be empty");
+            }
+            // walls on every other block, persons may still pass diagonally between them
+            for (int y = 0; y < this.height; y += this.wallSize) {
+                for (int x = 0; x < this.width; x += this.wallSize) {
+                    if ((x / this.wallSize + y / this.wallSize) % 2 == 0) {
+                        obstacles.add(new Rectangle(new XY(x, y), new XY(
+                                Math.min(this.wallSize, this.width - x), Math.min(this.wallSize, this.height - y)
+                        )));
+                    }
+                }
+            }
+        }
+        final int maxSize = Math.max(1, Math.min(this.width, this.height) / 10);
+        for (int i = 0; i < this.obstacles; i++) {
+            final int x = random.nextInt(this.width);
+            final int y = random.nextInt(this.height);
+            obstacles.add(new Rectangle(new XY(x, y), new XY(
+                    Math.min(1 + random.nextInt(maxSize), this.width - x),
+                    Math.min(1 + random.nextInt(maxSize), this.height - y)
+            )));
+        }
+        return obstacles;
+    }
+
+    /**
+     * Selects distinct free cells of the area uniformly at random.
+     *
+     * <p>
+     * Uses selection sampling over the free cells followed by a shuffle such that the ids
+     * of the persons are not correlated with their positions.
+     * </p>
+     */
+    private int[] placePersons(SplittableRandom random, Rectangle area, BitSet blocked) {
+        long free = 0;
+        for (XY cell : area) {
+            if (!blocked.get(this.index(cell.getX(), cell.getY()))) {
+                free++;
+            }
+        }
+        if (free < this.persons) {
+            throw new IllegalArgumentException(
+                "cannot place " + this.persons + " persons on " + free + " free cells"
+            );
+        }
+        final int[] cells = new int[this.persons];
+        int selected = 0;
+        for (int y = area.getTopLeft().getY(); y < area.getBottomRight().getY() && selected < cells.length; y++) {
+            for (int x = area.getTopLeft().getX(); x < area.getBottomRight().getX(); x++) {
+                final int index = this.index(x, y);
+                if (blocked.get(index)) {
+                    continue;
+                }
+                if (random.nextLong(free) < cells.length - selected) {
+                    cells[selected] = index;
+                    selected++;
+                }
+                free--;
+            }
+        }
+        for (int i = cells.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int cell = cells[i];
+            cells[i] = cells[j];
+            cells[j] = cell;
+        }
+        return cells;
+    }
+
+    private PersonInfo generatePerson(SplittableRandom random, int id, int cell) {
+        final byte[] seed = new byte[32];
+        for (int i = 0; i < seed.length; i += 8) {
+            long bits = random.nextLong();
+            for (int j = 0; j < 8; j++) {
+                seed[i + j] = (byte) bits;
+                bits >>>= 8;
+            }
+        }
+        final InfectionState.State state;
+        if (this.profile == Profile.ALL_INFECTIOUS) {
+            state = InfectionState.State.INFECTIOUS;
+        } else if (random.nextDouble() < this.infected) {
+            state = InfectionState.State.INFECTED;
+        } else {
+            state = InfectionState.State.SUSCEPTIBLE;
+        }
+        return new PersonInfo(
+                "Person #" + id,
+                new XY(cell % this.width, cell / this.width),
+                seed,
+                new InfectionState(state, 0),
+                Direction.values()[random.nextInt(Direction.values().length)]
+        );
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Generates synthetic scenarios for scale and stress testing.
+ */
+package com.pseuco.cp23.generator;
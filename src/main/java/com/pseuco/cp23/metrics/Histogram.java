@@ -0,0 +1,110 @@
+package com.pseuco.cp23.metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A histogram with logarithmically sized buckets, e.g., for latencies in nanoseconds.
+ *
+ * <p>
+ * Bucket <em>i</em> counts the values with <em>i</em> significant bits. Recording a value
+ * is cheap and allocation-free. A histogram must only be written by a single thread and
+ * must only be read after the writer is done, e.g., after joining it.
+ * </p>
+ */
+public class Histogram {
+    private final long[] buckets = new long[Long.SIZE + 1];
+
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * Records a non-negative value.
+     *
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        this.buckets[Long.SIZE - Long.numberOfLeadingZeros(value)]++;
+        this.count++;
+        this.sum += value;
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The number of recorded values.
+     */
+    @JsonProperty("count")
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     *
+     * @return The sum of all recorded values.
+     */
+    @JsonProperty("sum")
+    public long getSum() {
+        return this.sum;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The largest recorded value.
+     */
+    @JsonProperty("max")
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean of the recorded values.
+     */
+    @JsonProperty("mean")
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the recorded values.
+     *
+     * <p>
+     * The bound is the upper end of the bucket the percentile falls into, i.e., at most
+     * twice the actual value.
+     * </p>
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return An upper bound of the percentile.
+     */
+    public long getPercentile(double percentile) {
+        final long rank = (long) Math.ceil(percentile / 100 * this.count);
+        long seen = 0;
+        for (int i = 0; i < this.buckets.length; i++) {
+            seen += this.buckets[i];
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(this.max, (1L << i) - 1);
+            }
+        }
+        return 0;
+    }
+
+    @JsonProperty("p50")
+    public long getP50() {
+        return this.getPercentile(50);
+    }
+
+    @JsonProperty("p90")
+    public long getP90() {
+        return this.getPercentile(90);
+    }
+
+    @JsonProperty("p99")
+    public long getP99() {
+        return this.getPercentile(99);
+    }
+}
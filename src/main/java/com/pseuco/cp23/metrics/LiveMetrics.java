@@ -0,0 +1,201 @@
+package com.pseuco.cp23.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters describing the progress of a running simulation which may be read at any time.
+ *
+ * <p>
+ * In contrast to the other metrics, these counters are meant to be scraped while the
+ * simulation runs. Every counter has a single writer which publishes it with a release
+ * store, hence, updating a counter neither locks nor contends with other threads. The
+ * counters of different writers live on different cache lines such that the patches
+ * don't invalidate each other's lines. Readers may see counters of slightly different
+ * points in time, which is fine for monitoring.
+ * </p>
+ */
+public class LiveMetrics {
+    /**
+     * The number of longs per cache line, each writer's counters are this far apart.
+     */
+    private static final int STRIDE = 8;
+
+    // the slots of the aggregating thread
+    private static final int COMPLETED_TICKS = 0;
+    private static final int SUSCEPTIBLE = 1;
+    private static final int INFECTED = 2;
+    private static final int INFECTIOUS = 3;
+    private static final int RECOVERED = 4;
+
+    // the slots of a patch
+    private static final int PATCH_TICK = 0;
+    private static final int PATCH_SYNC_WAIT = 1;
+
+    private final int numberOfPatches;
+    private final int ticks;
+    private final IntSupplier backlog;
+    private final long startTime = System.nanoTime();
+
+    private final AtomicLongArray aggregator = new AtomicLongArray(STRIDE);
+    private final AtomicLongArray patches;
+
+    /**
+     * Constructs the counters of a run.
+     *
+     * @param numberOfPatches The number of patches.
+     * @param ticks           The number of ticks to simulate.
+     * @param backlog         Supplies the number of results waiting for the aggregating
+     *                        thread, must be safe to call from any thread.
+     */
+    public LiveMetrics(int numberOfPatches, int ticks, IntSupplier backlog) {
+        this.numberOfPatches = numberOfPatches;
+        this.ticks = ticks;
+        this.backlog = backlog;
+        // one line of padding in front of the first patch
+        this.patches = new AtomicLongArray((numberOfPatches + 1) * STRIDE);
+    }
+
+    private int patchSlot(int patchId, int slot) {
+        return (patchId + 1) * STRIDE + slot;
+    }
+
+    /**
+     * Records the tick a patch is simulating.
+     *
+     * <p>
+     * Must only be called by the patch's thread.
+     * </p>
+     *
+     * @param patchId The id of the patch.
+     * @param tick    The tick.
+     */
+    public void setPatchTick(int patchId, int tick) {
+        this.patches.setRelease(this.patchSlot(patchId, PATCH_TICK), tick);
+    }
+
+    /**
+     * Adds time a patch spent waiting for its neighbours during a sync.
+     *
+     * <p>
+     * Must only be called by the patch's thread.
+     * </p>
+     *
+     * @param patchId The id of the patch.
+     * @param nanos   The time spent waiting in nanoseconds.
+     */
+    public void addSyncWait(int patchId, long nanos) {
+        final int slot = this.patchSlot(patchId, PATCH_SYNC_WAIT);
+        this.patches.setRelease(slot, this.patches.getPlain(slot) + nanos);
+    }
+
+    /**
+     * Records that the aggregating thread completed a tick.
+     *
+     * <p>
+     * Must only be called by the aggregating thread.
+     * </p>
+     *
+     * @param completed   The number of completed ticks including the initial one.
+     * @param susceptible The number of susceptible persons at the tick.
+     * @param infected    The number of infected persons at the tick.
+     * @param infectious  The number of infectious persons at the tick.
+     * @param recovered   The number of recovered persons at the tick.
+     */
+    public void completeTick(int completed, long susceptible, long infected, long infectious, long recovered) {
+        this.aggregator.setRelease(SUSCEPTIBLE, susceptible);
+        this.aggregator.setRelease(INFECTED, infected);
+        this.aggregator.setRelease(INFECTIOUS, infectious);
+        this.aggregator.setRelease(RECOVERED, recovered);
+        this.aggregator.setRelease(COMPLETED_TICKS, completed);
+    }
+
+    /**
+     * Returns the number of ticks completed by the aggregating thread.
+     *
+     * @return The number of completed ticks including the initial one.
+     */
+    public long getCompletedTicks() {
+        return this.aggregator.getAcquire(COMPLETED_TICKS);
+    }
+
+    /**
+     * Returns the tick a patch is simulating.
+     *
+     * @param patchId The id of the patch.
+     * @return The tick.
+     */
+    public long getPatchTick(int patchId) {
+        return this.patches.getAcquire(this.patchSlot(patchId, PATCH_TICK));
+    }
+
+    /**
+     * Writes the counters in the text format of Prometheus.
+     *
+     * @param out The builder to append to.
+     */
+    public void writePrometheus(StringBuilder out) {
+        final long completed = this.getCompletedTicks();
+        final double elapsed = (System.nanoTime() - this.startTime) / 1e9;
+
+        header(out, "simulation_ticks", "gauge", "The number of ticks to simulate.");
+        sample(out, "simulation_ticks", null, this.ticks);
+        header(out, "simulation_completed_ticks_total", "counter",
+                "The number of ticks whose statistics are complete, including the initial one.");
+        sample(out, "simulation_completed_ticks_total", null, completed);
+        header(out, "simulation_ticks_per_second", "gauge", "The completed ticks per second since the start.");
+        sample(out, "simulation_ticks_per_second", null, elapsed > 0 ? completed / elapsed : 0);
+
+        header(out, "simulation_population", "gauge", "The persons per infection state at the last completed tick.");
+        sample(out, "simulation_population", "state=\"susceptible\"", this.aggregator.getAcquire(SUSCEPTIBLE));
+        sample(out, "simulation_population", "state=\"infected\"", this.aggregator.getAcquire(INFECTED));
+        sample(out, "simulation_population", "state=\"infectious\"", this.aggregator.getAcquire(INFECTIOUS));
+        sample(out, "simulation_population", "state=\"recovered\"", this.aggregator.getAcquire(RECOVERED));
+
+        header(out, "rocket_results_queue_depth", "gauge", "The number of results waiting for the aggregating thread.");
+        sample(out, "rocket_results_queue_depth", null, this.backlog.getAsInt());
+
+        header(out, "rocket_patch_tick", "gauge", "The tick each patch is simulating.");
+        for (int id = 0; id < this.numberOfPatches; id++) {
+            sample(out, "rocket_patch_tick", "patch=\"" + id + "\"", this.getPatchTick(id));
+        }
+        header(out, "rocket_patch_sync_wait_seconds_total", "counter",
+                "The time each patch spent waiting for its neighbours during syncs.");
+        for (int id = 0; id < this.numberOfPatches; id++) {
+            sample(out, "rocket_patch_sync_wait_seconds_total", "patch=\"" + id + "\"",
+                    this.patches.getAcquire(this.patchSlot(id, PATCH_SYNC_WAIT)) / 1e9);
+        }
+
+        final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        header(out, "jvm_heap_used_bytes", "gauge", "The used heap memory.");
+        sample(out, "jvm_heap_used_bytes", null, heap.getUsed());
+        header(out, "jvm_heap_committed_bytes", "gauge", "The heap memory committed by the JVM.");
+        sample(out, "jvm_heap_committed_bytes", null, heap.getCommitted());
+        header(out, "jvm_heap_max_bytes", "gauge", "The maximal heap memory, -1 if undefined.");
+        sample(out, "jvm_heap_max_bytes", null, heap.getMax());
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(String.format(Locale.ROOT, "%.6f", value)).append('\n');
+    }
+}
@@ -0,0 +1,76 @@
+package com.pseuco.cp23.metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves live metrics at <em>GET /metrics</em> for Prometheus to scrape.
+ *
+ * <p>
+ * The server runs on a single daemon thread and only reads the counters, hence, scraping
+ * doesn't slow down the simulation beyond the reads themselves.
+ * </p>
+ */
+public class MetricsServer {
+    private final LiveMetrics metrics;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    /**
+     * Binds a server to the given address, see <em>start</em>.
+     *
+     * @param metrics The metrics to serve.
+     * @param address The address to listen on, port 0 picks a free one.
+     * @throws IOException If the server cannot be bound.
+     */
+    public MetricsServer(LiveMetrics metrics, InetSocketAddress address) throws IOException {
+        this.metrics = metrics;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("metrics-server").daemon().factory());
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/metrics", this::scrape);
+    }
+
+    /**
+     * Starts serving the metrics.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops serving the metrics.
+     */
+    public void stop() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * @return The address the server listens on.
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final StringBuilder text = new StringBuilder();
+            this.metrics.writePrometheus(text);
+            final byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+}
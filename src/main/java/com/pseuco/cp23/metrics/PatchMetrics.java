@@ -0,0 +1,116 @@
+package com.pseuco.cp23.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Collects the time a patch spends in the phases of its ticks.
+ *
+ * <p>
+ * The phase histograms are written by the patch's own thread only. The time neighbours
+ * spend waiting for the patch is reported by the neighbours and thus thread-safe.
+ * </p>
+ */
+public class PatchMetrics {
+    /**
+     * The phases of a tick of a patch.
+     */
+    public enum Phase {
+        /**
+         * Moving the persons, i.e., calling <em>tick</em> on them.
+         */
+        @JsonProperty("movement")
+        MOVEMENT,
+        /**
+         * Sorting the persons into patch and padding population.
+         */
+        @JsonProperty("reclassification")
+        RECLASSIFICATION,
+        /**
+         * Spreading the infection between the persons.
+         */
+        @JsonProperty("infection")
+        INFECTION,
+        /**
+         * Handing the persons of the tick over to the aggregator.
+         */
+        @JsonProperty("results")
+        RESULTS,
+        /**
+         * Synchronizing with the neighbours, including waiting for them.
+         */
+        @JsonProperty("sync")
+        SYNC
+    }
+
+    @JsonProperty("id")
+    private final int patchId;
+
+    @JsonProperty("phases")
+    private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+
+    private final LongAdder blockingNeighbours = new LongAdder();
+
+    /**
+     * Constructs the metrics of the patch with the given id.
+     *
+     * @param patchId The id of the patch.
+     */
+    public PatchMetrics(int patchId) {
+        this.patchId = patchId;
+        for (Phase phase : Phase.values()) {
+            this.phases.put(phase, new Histogram());
+        }
+    }
+
+    /**
+     * Returns the id of the patch.
+     *
+     * @return The id of the patch.
+     */
+    public int getPatchId() {
+        return this.patchId;
+    }
+
+    /**
+     * Records the time spent in a phase during one tick.
+     *
+     * @param phase The phase.
+     * @param nanos The time spent in nanoseconds.
+     */
+    public void record(Phase phase, long nanos) {
+        this.phases.get(phase).record(nanos);
+    }
+
+    /**
+     * Returns the histogram of the given phase.
+     *
+     * @param phase The phase.
+     * @return The histogram of the given phase.
+     */
+    public Histogram getPhase(Phase phase) {
+        return this.phases.get(phase);
+    }
+
+    /**
+     * Adds time a neighbour spent waiting for the patch to reach a sync.
+     *
+     * @param nanos The time spent waiting in nanoseconds.
+     */
+    public void addBlockingNeighbours(long nanos) {
+        this.blockingNeighbours.add(nanos);
+    }
+
+    /**
+     * Returns the total time neighbours spent waiting for the patch to reach a sync.
+     *
+     * @return The total time in nanoseconds.
+     */
+    @JsonProperty("blockingNeighboursNanos")
+    public long getBlockingNeighbours() {
+        return this.blockingNeighbours.sum();
+    }
+}
@@ -0,0 +1,106 @@
+package com.pseuco.cp23.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The runtime metrics of a run of the concurrent implementation.
+ */
+public class RocketMetrics {
+    /**
+     * Summarizes how much a patch held back its neighbours.
+     */
+    public static class Straggler {
+        @JsonProperty("patch")
+        private final int patchId;
+
+        @JsonProperty("blockingNeighboursNanos")
+        private final long blockingNeighbours;
+
+        @JsonProperty("share")
+        private final double share;
+
+        private Straggler(int patchId, long blockingNeighbours, double share) {
+            this.patchId = patchId;
+            this.blockingNeighbours = blockingNeighbours;
+            this.share = share;
+        }
+    }
+
+    @JsonProperty("patches")
+    private final List<PatchMetrics> patches = new ArrayList<>();
+
+    @JsonProperty("aggregatorBacklog")
+    private final Histogram backlog = new Histogram();
+
+    /**
+     * Constructs metrics for the given number of patches.
+     *
+     * @param numberOfPatches The number of patches.
+     */
+    public RocketMetrics(int numberOfPatches) {
+        for (int id = 0; id < numberOfPatches; id++) {
+            this.patches.add(new PatchMetrics(id));
+        }
+    }
+
+    /**
+     * Returns the metrics of the patch with the given id.
+     *
+     * @param patchId The id of the patch.
+     * @return The metrics of the patch.
+     */
+    public PatchMetrics getPatch(int patchId) {
+        return this.patches.get(patchId);
+    }
+
+    /**
+     * Records the number of results waiting for the aggregator.
+     *
+     * <p>
+     * Must only be called by the aggregating thread.
+     * </p>
+     *
+     * @param pending The number of pending results.
+     */
+    public void recordBacklog(int pending) {
+        this.backlog.record(pending);
+    }
+
+    /**
+     * Returns the patches ordered by how long their neighbours waited for them.
+     *
+     * @return The patches which held back a neighbour, worst first.
+     */
+    @JsonProperty("stragglers")
+    public List<Straggler> getStragglers() {
+        final long total = this.patches.stream().mapToLong(PatchMetrics::getBlockingNeighbours).sum();
+        return this.patches.stream()
+                .filter(patch -> patch.getBlockingNeighbours() > 0)
+                .sorted(Comparator.comparingLong(PatchMetrics::getBlockingNeighbours).reversed())
+                .map(patch -> new Straggler(
+                        patch.getPatchId(),
+                        patch.getBlockingNeighbours(),
+                        (double) patch.getBlockingNeighbours() / total
+                ))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the metrics as JSON to the given file.
+     *
+     * @param file The file to write to.
+     * @throws IOException If writing fails.
+     */
+    public void write(File file) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, this);
+    }
+}
@@ -0,0 +1,166 @@
+package com.pseuco.cp23.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Records begin and end events of the threads of a run as a timeline.
+ *
+ * <p>
+ * Every thread appends to its own buffer, hence, recording an event neither locks nor
+ * contends with other threads. The buffers must only be exported after all recording
+ * threads are done, e.g., after joining them. The export uses the Chrome trace-event
+ * format which can be opened with Perfetto or <em>chrome://tracing</em>.
+ * </p>
+ */
+public class TimelineRecorder {
+    /**
+     * The events of a single thread stored in parallel arrays.
+     */
+    private static class Buffer {
+        private final long threadId;
+        private final String threadName;
+
+        private long[] timestamps = new long[1024];
+        private String[] names = new String[1024];
+        private String[] argumentNames = new String[1024];
+        private int[] arguments = new int[1024];
+        private String[] secondArgumentNames = new String[1024];
+        private int[] secondArguments = new int[1024];
+        private boolean[] begins = new boolean[1024];
+        private int size = 0;
+
+        private Buffer(Thread thread) {
+            this.threadId = thread.threadId();
+            this.threadName = thread.getName();
+        }
+
+        private void add(long timestamp, String name, String argumentName, int argument,
+                         String secondArgumentName, int secondArgument, boolean begin) {
+            if (this.size == this.timestamps.length) {
+                final int capacity = 2 * this.size;
+                this.timestamps = Arrays.copyOf(this.timestamps, capacity);
+                this.names = Arrays.copyOf(this.names, capacity);
+                this.argumentNames = Arrays.copyOf(this.argumentNames, capacity);
+                this.arguments = Arrays.copyOf(this.arguments, capacity);
+                this.secondArgumentNames = Arrays.copyOf(this.secondArgumentNames, capacity);
+                this.secondArguments = Arrays.copyOf(this.secondArguments, capacity);
+                this.begins = Arrays.copyOf(this.begins, capacity);
+            }
+            this.timestamps[this.size] = timestamp;
+            this.names[this.size] = name;
+            this.argumentNames[this.size] = argumentName;
+            this.arguments[this.size] = argument;
+            this.secondArgumentNames[this.size] = secondArgumentName;
+            this.secondArguments[this.size] = secondArgument;
+            this.begins[this.size] = begin;
+            this.size++;
+        }
+    }
+
+    private final long origin = System.nanoTime();
+
+    private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(() -> {
+        final Buffer buffer = new Buffer(Thread.currentThread());
+        this.buffers.add(buffer);
+        return buffer;
+    });
+
+    /**
+     * Records the begin of a span on the current thread.
+     *
+     * @param name The name of the span, should be a constant.
+     */
+    public void begin(String name) {
+        this.buffer.get().add(System.nanoTime() - this.origin, name, null, 0, null, 0, true);
+    }
+
+    /**
+     * Records the begin of a span with an argument on the current thread.
+     *
+     * @param name         The name of the span, should be a constant.
+     * @param argumentName The name of the argument, should be a constant.
+     * @param argument     The argument shown with the span.
+     */
+    public void begin(String name, String argumentName, int argument) {
+        this.buffer.get().add(System.nanoTime() - this.origin, name, argumentName, argument, null, 0, true);
+    }
+
+    /**
+     * Records the begin of a span with two arguments on the current thread.
+     *
+     * @param name               The name of the span, should be a constant.
+     * @param argumentName       The name of the first argument, should be a constant.
+     * @param argument           The first argument shown with the span.
+     * @param secondArgumentName The name of the second argument, should be a constant.
+     * @param secondArgument     The second argument shown with the span.
+     */
+    public void begin(String name, String argumentName, int argument, String secondArgumentName, int secondArgument) {
+        this.buffer.get().add(
+                System.nanoTime() - this.origin, name, argumentName, argument, secondArgumentName, secondArgument, true
+        );
+    }
+
+    /**
+     * Records the end of the innermost span of the current thread.
+     *
+     * @param name The name of the span.
+     */
+    public void end(String name) {
+        this.buffer.get().add(System.nanoTime() - this.origin, name, null, 0, null, 0, false);
+    }
+
+    /**
+     * Writes the recorded events as Chrome trace-event JSON to the given file.
+     *
+     * @param file The file to write to.
+     * @throws IOException If writing fails.
+     */
+    public void write(File file) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("displayTimeUnit", "ms");
+            generator.writeArrayFieldStart("traceEvents");
+            for (Buffer buffer : this.buffers) {
+                generator.writeStartObject();
+                generator.writeStringField("name", "thread_name");
+                generator.writeStringField("ph", "M");
+                generator.writeNumberField("pid", 1);
+                generator.writeNumberField("tid", buffer.threadId);
+                generator.writeObjectFieldStart("args");
+                generator.writeStringField("name", buffer.threadName);
+                generator.writeEndObject();
+                generator.writeEndObject();
+                for (int i = 0; i < buffer.size; i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", buffer.names[i]);
+                    generator.writeStringField("ph", buffer.begins[i] ? "B" : "E");
+                    // the format expects microseconds
+                    generator.writeNumberField("ts", buffer.timestamps[i] / 1000.0);
+                    generator.writeNumberField("pid", 1);
+                    generator.writeNumberField("tid", buffer.threadId);
+                    if (buffer.argumentNames[i] != null) {
+                        generator.writeObjectFieldStart("args");
+                        generator.writeNumberField(buffer.argumentNames[i], buffer.arguments[i]);
+                        if (buffer.secondArgumentNames[i] != null) {
+                            generator.writeNumberField(buffer.secondArgumentNames[i], buffer.secondArguments[i]);
+                        }
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Instrumentation to find out where the concurrent implementation spends its time.
+ */
+package com.pseuco.cp23.metrics;
@@ -0,0 +1,64 @@
+package com.pseuco.cp23.model;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents the results of a single tick published while a simulation runs.
+ */
+public class TickResult {
+    @JsonProperty(value = "tick")
+    private final int tick;
+
+    @JsonProperty(value = "stats")
+    private final Map<String, Statistics> statistics;
+
+    @JsonProperty(value = "trace")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final TraceEntry trace;
+
+    /**
+     * Constructs the results of a tick with the given data.
+     *
+     * @param tick       The tick, 0 is the initial state.
+     * @param statistics The statistics of the tick by query.
+     * @param trace      The population at the tick, may be null.
+     */
+    public TickResult(
+            @JsonProperty(value = "tick", required = true) final int tick,
+            @JsonProperty(value = "stats", required = true) final Map<String, Statistics> statistics,
+            @JsonProperty(value = "trace") final TraceEntry trace) {
+        this.tick = tick;
+        this.statistics = statistics;
+        this.trace = trace;
+    }
+
+    /**
+     * Returns the tick.
+     *
+     * @return The tick, 0 is the initial state.
+     */
+    public int getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Returns the statistics of the tick.
+     *
+     * @return The statistics of the tick by query.
+     */
+    public Map<String, Statistics> getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Returns the population at the tick if it was requested.
+     *
+     * @return The population at the tick or null.
+     */
+    public TraceEntry getTrace() {
+        return this.trace;
+    }
+}
@@ -0,0 +1,90 @@
+package com.pseuco.cp23.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Flow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.TickResult;
+
+/**
+ * Writes the results of every tick as a line of JSON, i.e., newline-delimited JSON.
+ *
+ * <p>
+ * Each line is flushed right away such that consumers see the ticks live. The sink keeps
+ * a fixed number of results requested, hence, at most that many results are handed out
+ * ahead of the stream. If writing fails, the subscription is cancelled and the error is
+ * rethrown by <em>checkError</em>.
+ * </p>
+ */
+public class NdjsonSink implements Flow.Subscriber<TickResult> {
+    private final ObjectMapper objectMapper;
+    private final OutputStream stream;
+    private final int window;
+
+    private Flow.Subscription subscription;
+    private Throwable error = null;
+
+    /**
+     * Constructs a sink writing to the given stream.
+     *
+     * @param objectMapper The mapper to serialize the results with.
+     * @param stream       The stream to write to. The stream is not closed.
+     * @param window       The number of results requested at any time.
+     */
+    public NdjsonSink(ObjectMapper objectMapper, OutputStream stream, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("the window must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.stream = stream;
+        this.window = window;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(this.window);
+    }
+
+    @Override
+    public void onNext(TickResult result) {
+        try {
+            this.stream.write(this.objectMapper.writeValueAsBytes(result));
+            this.stream.write('\n');
+            this.stream.flush();
+            // print streams swallow their errors, e.g., a closed pipe
+            if (this.stream instanceof PrintStream && ((PrintStream) this.stream).checkError()) {
+                throw new IOException("writing to the stream failed");
+            }
+        } catch (IOException error) {
+            this.error = error;
+            this.subscription.cancel();
+            return;
+        }
+        this.subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        this.error = error;
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    /**
+     * Throws the error which ended the stream early, if any.
+     *
+     * @throws IOException If writing a result failed or the publisher failed.
+     */
+    public void checkError() throws IOException {
+        if (this.error instanceof IOException) {
+            throw (IOException) this.error;
+        } else if (this.error != null) {
+            throw new IOException(this.error);
+        }
+    }
+}
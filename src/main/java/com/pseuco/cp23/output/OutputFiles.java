@@ -0,0 +1,89 @@
+package com.pseuco.cp23.output;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Output;
+
+/**
+ * Opens output files which are either plain JSON or gzip-compressed JSON.
+ *
+ * <p>
+ * Files whose name ends with <em>.gz</em> are written compressed with a
+ * <em>ParallelGzipOutputStream</em>. When reading, compressed files are recognized by
+ * their content, i.e., independently of their name.
+ * </p>
+ */
+public final class OutputFiles {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Returns whether the given file is written compressed.
+     *
+     * @param file The file to write to.
+     * @return Whether the file is written compressed.
+     */
+    public static boolean isCompressed(File file) {
+        return file.getName().endsWith(".gz");
+    }
+
+    /**
+     * Creates the given file for writing.
+     *
+     * @param file The file to write to.
+     * @return A stream which compresses the written bytes if the file name demands it.
+     * @throws IOException If the file cannot be created.
+     */
+    public static OutputStream create(File file) throws IOException {
+        final OutputStream stream = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+        if (isCompressed(file)) {
+            return new ParallelGzipOutputStream(stream);
+        }
+        return stream;
+    }
+
+    /**
+     * Opens the given file for reading.
+     *
+     * @param file The file to read from.
+     * @return A stream which decompresses the content if the file is compressed.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static InputStream open(File file) throws IOException {
+        final BufferedInputStream stream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        stream.mark(2);
+        final int first = stream.read();
+        final int second = stream.read();
+        stream.reset();
+        if (first == 0x1f && second == 0x8b) {
+            // decompresses all members of multi-member files
+            return new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+        return stream;
+    }
+
+    /**
+     * Reads the output stored in the given file.
+     *
+     * @param objectMapper The object mapper used for deserialization.
+     * @param file         The file to read from.
+     * @return The output stored in the file.
+     * @throws IOException If reading the file fails.
+     */
+    public static Output read(ObjectMapper objectMapper, File file) throws IOException {
+        try (InputStream stream = open(file)) {
+            return objectMapper.readValue(stream, Output.class);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.pseuco.cp23.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the written bytes in parallel into a gzip file.
+ *
+ * <p>
+ * The stream is split into blocks of a fixed size. Each block is compressed on a worker
+ * thread into a gzip member of its own and the members are written in order, hence, the
+ * result is a standard multi-member gzip file which, e.g., <em>GZIPInputStream</em> and
+ * <em>gunzip</em> decompress as a whole. At most two blocks per worker are in flight such
+ * that memory stays bounded if the target is slower than the compression.
+ * </p>
+ *
+ * <p>
+ * Flushing only flushes the blocks which have been compressed already, i.e., it does not
+ * end the current block. Otherwise, serializers flushing after each value would produce
+ * tiny members.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    /**
+     * The default size of the blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, // magic number
+        Deflater.DEFLATED, // compression method
+        0, // flags
+        0, 0, 0, 0, // modification time (unknown)
+        0, // extra flags
+        (byte) 0xff // operating system (unknown)
+    };
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final int level;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private final Queue<Future<byte[]>> inFlight = new ArrayDeque<>();
+
+    private byte[] block;
+    private int position = 0;
+    private boolean empty = true;
+    private boolean closed = false;
+
+    /**
+     * Constructs a stream using all processors and the default block size.
+     *
+     * @param out The stream to write the compressed data to.
+     */
+    public ParallelGzipOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors(), Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructs a stream with the given parameters.
+     *
+     * @param out       The stream to write the compressed data to.
+     * @param blockSize The number of uncompressed bytes per block.
+     * @param threads   The number of worker threads.
+     * @param level     The compression level of the <em>Deflater</em>.
+     */
+    public ParallelGzipOutputStream(OutputStream out, int blockSize, int threads, int level) {
+        if (blockSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("block size and threads must be positive");
+        }
+        this.out = out;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxInFlight = 2 * threads;
+        this.executor = Executors.newFixedThreadPool(threads, (Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, "gzip-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (this.position == this.blockSize) {
+            this.submit();
+        }
+        this.block[this.position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (this.position == this.blockSize) {
+                this.submit();
+            }
+            final int chunk = Math.min(length, this.blockSize - this.position);
+            System.arraycopy(bytes, offset, this.block, this.position, chunk);
+            this.position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        while (!this.inFlight.isEmpty() && this.inFlight.peek().isDone()) {
+            this.writeOldest();
+        }
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            // an empty stream still becomes a valid gzip file
+            if (this.position > 0 || this.empty) {
+                this.submit();
+            }
+            while (!this.inFlight.isEmpty()) {
+                this.writeOldest();
+            }
+        } finally {
+            this.executor.shutdownNow();
+            this.out.close();
+        }
+    }
+
+    private void submit() throws IOException {
+        if (this.inFlight.size() == this.maxInFlight) {
+            this.writeOldest();
+        }
+        final byte[] data = this.block;
+        final int length = this.position;
+        this.inFlight.add(this.executor.submit(() -> compress(data, length, this.level)));
+        this.block = new byte[this.blockSize];
+        this.position = 0;
+        this.empty = false;
+    }
+
+    private void writeOldest() throws IOException {
+        try {
+            this.out.write(this.inFlight.remove().get());
+        } catch (ExecutionException error) {
+            throw new IOException(error.getCause());
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new IOException(error);
+        }
+    }
+
+    /**
+     * Compresses the data into a complete gzip member.
+     */
+    private static byte[] compress(byte[] data, int length, int level) {
+        final ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + 64);
+        member.writeBytes(HEADER);
+
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            final byte[] buffer = new byte[Math.min(length + 64, 1 << 16)];
+            while (!deflater.finished()) {
+                member.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        final byte[] trailer = new byte[8];
+        writeIntLE(trailer, 0, (int) crc.getValue());
+        writeIntLE(trailer, 4, length);
+        member.writeBytes(trailer);
+        return member.toByteArray();
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+}
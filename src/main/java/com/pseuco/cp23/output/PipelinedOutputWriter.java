@@ -0,0 +1,162 @@
+package com.pseuco.cp23.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TraceEntry;
+
+/**
+ * Writes an output file while the simulation producing it is still running.
+ *
+ * <p>
+ * The writer serializes trace entries on its own thread as soon as the engine hands them
+ * over. Entries are passed through a bounded queue, hence, the engine blocks if it gets
+ * ahead of the writer by more than the capacity and memory stays bounded. The statistics
+ * are small and written once the simulation has finished. The resulting file is identical
+ * to the one obtained by serializing the complete output at once.
+ * </p>
+ */
+public class PipelinedOutputWriter implements Consumer<TraceEntry> {
+    /**
+     * Marks the end of the trace in the queue.
+     */
+    private static final Optional<TraceEntry> END = Optional.empty();
+
+    private final ObjectMapper objectMapper;
+    private final File file;
+    private final Scenario scenario;
+    private final BlockingQueue<Optional<TraceEntry>> queue;
+
+    private JsonGenerator generator;
+    private Thread thread;
+
+    private volatile IOException error = null;
+
+    /**
+     * Constructs a writer with the given parameters.
+     *
+     * @param objectMapper The object mapper used for serialization.
+     * @param file         The file to write the output to, compressed if its name ends with <em>.gz</em>.
+     * @param scenario     The scenario of the output.
+     * @param capacity     The maximal number of trace entries waiting to be written.
+     */
+    public PipelinedOutputWriter(ObjectMapper objectMapper, File file, Scenario scenario, int capacity) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.scenario = scenario;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Opens the file and starts the writer thread.
+     *
+     * <p>
+     * Must be called before the simulation is run.
+     * </p>
+     *
+     * @throws IOException If the file cannot be opened.
+     */
+    public void start() throws IOException {
+        this.generator = this.objectMapper.getFactory().createGenerator(
+            OutputFiles.create(this.file), JsonEncoding.UTF8
+        );
+        this.thread = new Thread(this::writeTrace, "output-writer");
+        this.thread.start();
+    }
+
+    /**
+     * Hands a trace entry to the writer, blocks while the queue is full.
+     *
+     * @param entry The next entry of the trace.
+     */
+    @Override
+    public void accept(TraceEntry entry) {
+        try {
+            this.queue.put(Optional.of(entry));
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(error);
+        }
+    }
+
+    private void writeTrace() {
+        try {
+            this.generator.writeStartObject();
+            this.generator.writeObjectField("scenario", this.scenario);
+            this.generator.writeArrayFieldStart("trace");
+        } catch (IOException error) {
+            this.error = error;
+        }
+        try {
+            while (true) {
+                final Optional<TraceEntry> entry = this.queue.take();
+                if (entry.isEmpty()) {
+                    break;
+                }
+                // after a failure we keep draining the queue such that the engine never blocks
+                if (this.error == null) {
+                    try {
+                        this.generator.writeObject(entry.get());
+                    } catch (IOException error) {
+                        this.error = error;
+                    }
+                }
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Completes the output file after the simulation has finished.
+     *
+     * @param statistics The statistics of the output.
+     * @throws IOException          If writing the output failed.
+     * @throws InterruptedException If interrupted while waiting for the writer thread.
+     */
+    public void finish(Map<String, List<Statistics>> statistics) throws IOException, InterruptedException {
+        this.queue.put(END);
+        this.thread.join();
+        try {
+            if (this.error != null) {
+                throw this.error;
+            }
+            this.generator.writeEndArray();
+            this.generator.writeObjectField("stats", statistics);
+            this.generator.writeEndObject();
+        } finally {
+            this.generator.close();
+        }
+    }
+
+    /**
+     * Stops the writer thread and closes the incomplete output file after the simulation failed.
+     *
+     * <p>
+     * Errors of the writer are dropped as the failure of the simulation is the one to report.
+     * </p>
+     *
+     * @throws InterruptedException If interrupted while waiting for the writer thread.
+     */
+    public void abort() throws InterruptedException {
+        // the engine has stopped, hence, the queue drains and there is room for the marker
+        this.queue.put(END);
+        this.thread.join();
+        try {
+            this.generator.close();
+        } catch (IOException error) {
+            // the output is incomplete anyway
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Writing the output of a simulation while it is still running.
+ */
+package com.pseuco.cp23.output;
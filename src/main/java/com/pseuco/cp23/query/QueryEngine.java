@@ -0,0 +1,234 @@
+package com.pseuco.cp23.query;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.InfectionState;
+import com.pseuco.cp23.model.Query;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.output.OutputFiles;
+import com.pseuco.cp23.trace.DeltaTrace;
+
+/**
+ * Answers statistics queries over a recorded run.
+ *
+ * <p>
+ * Ticks are processed in parallel. For each tick the engine either builds summed-area
+ * tables of the persons per infection state, which answer any rectangle in constant time,
+ * or, if there are only few queries compared to the size of the grid, checks each person
+ * against each query. Both yield the statistics the engines compute for the same queries.
+ * </p>
+ */
+public class QueryEngine {
+    private static final int STATES = InfectionState.State.values().length;
+
+    private final RecordedRun run;
+
+    private final ThreadLocal<int[]> tables = new ThreadLocal<>();
+
+    /**
+     * Constructs an engine answering queries over the given run.
+     *
+     * @param run The recorded run.
+     */
+    public QueryEngine(RecordedRun run) {
+        this.run = run;
+    }
+
+    /**
+     * Answers the queries for the given range of ticks.
+     *
+     * @param queries The queries by name.
+     * @param from    The first tick.
+     * @param to      The last tick, inclusive.
+     * @return The statistics of each query for each tick of the range, keyed and ordered
+     *         like the queries.
+     */
+    public Map<String, List<Statistics>> query(Map<String, Query> queries, int from, int to) {
+        if (from < 0 || to >= this.run.size() || from > to) {
+            throw new IllegalArgumentException(
+                "invalid tick range [" + from + ", " + to + "] for a run of " + this.run.size() + " ticks"
+            );
+        }
+        final Rectangle grid = new Rectangle(XY.ZERO, this.run.getGridSize());
+        final List<Rectangle> areas = new ArrayList<>();
+        for (Query query : queries.values()) {
+            final Rectangle area = query.getArea();
+            areas.add(grid.overlaps(area) ? grid.intersect(area) : null);
+        }
+
+        final Statistics[][] answers = IntStream.rangeClosed(from, to)
+                .parallel()
+                .mapToObj((int tick) -> this.answer(tick, areas))
+                .toArray(Statistics[][]::new);
+
+        final Map<String, List<Statistics>> statistics = new LinkedHashMap<>();
+        int index = 0;
+        for (String name : queries.keySet()) {
+            final List<Statistics> entries = new ArrayList<>(answers.length);
+            for (Statistics[] answer : answers) {
+                entries.add(answer[index]);
+            }
+            statistics.put(name, entries);
+            index++;
+        }
+        return statistics;
+    }
+
+    private Statistics[] answer(int tick, List<Rectangle> areas) {
+        final int[] cells = this.run.getCells(tick);
+        final byte[] states = this.run.getStates(tick);
+        final int width = this.run.getGridSize().getX();
+        final int height = this.run.getGridSize().getY();
+
+        final long[][] counts = new long[areas.size()][STATES];
+        if ((long) cells.length * areas.size() <= (long) STATES * (width + 1) * (height + 1)) {
+            for (int id = 0; id < cells.length; id++) {
+                final int x = cells[id] % width;
+                final int y = cells[id] / width;
+                for (int index = 0; index < areas.size(); index++) {
+                    final Rectangle area = areas.get(index);
+                    if (area != null && area.getTopLeft().getX() <= x && x < area.getBottomRight().getX()
+                            && area.getTopLeft().getY() <= y && y < area.getBottomRight().getY()) {
+                        counts[index][states[id]]++;
+                    }
+                }
+            }
+        } else {
+            // summed-area tables with a leading row and column of zeros, states interleaved
+            final int stride = width + 1;
+            final int[] table = this.getTable(STATES * stride * (height + 1));
+            for (int id = 0; id < cells.length; id++) {
+                final int x = cells[id] % width;
+                final int y = cells[id] / width;
+                table[STATES * ((y + 1) * stride + x + 1) + states[id]]++;
+            }
+            for (int y = 1; y <= height; y++) {
+                for (int x = 1; x <= width; x++) {
+                    final int cell = STATES * (y * stride + x);
+                    final int left = cell - STATES;
+                    final int up = cell - STATES * stride;
+                    final int diagonal = up - STATES;
+                    for (int state = 0; state < STATES; state++) {
+                        table[cell + state] += table[left + state] + table[up + state] - table[diagonal + state];
+                    }
+                }
+            }
+            for (int index = 0; index < areas.size(); index++) {
+                final Rectangle area = areas.get(index);
+                if (area == null) {
+                    continue;
+                }
+                final int top = STATES * area.getTopLeft().getY() * stride;
+                final int bottom = STATES * area.getBottomRight().getY() * stride;
+                final int left = STATES * area.getTopLeft().getX();
+                final int right = STATES * area.getBottomRight().getX();
+                for (int state = 0; state < STATES; state++) {
+                    counts[index][state] = table[bottom + right + state] - table[top + right + state]
+                            - table[bottom + left + state] + table[top + left + state];
+                }
+            }
+        }
+
+        final Statistics[] answer = new Statistics[areas.size()];
+        for (int index = 0; index < answer.length; index++) {
+            answer[index] = new Statistics(
+                    counts[index][InfectionState.State.SUSCEPTIBLE.ordinal()],
+                    counts[index][InfectionState.State.INFECTED.ordinal()],
+                    counts[index][InfectionState.State.INFECTIOUS.ordinal()],
+                    counts[index][InfectionState.State.RECOVERED.ordinal()]
+            );
+        }
+        return answer;
+    }
+
+    /**
+     * Returns a zeroed table of the thread, the table is reused across ticks.
+     */
+    private int[] getTable(int size) {
+        int[] table = this.tables.get();
+        if (table == null || table.length != size) {
+            table = new int[size];
+            this.tables.set(table);
+        } else {
+            Arrays.fill(table, 0);
+        }
+        return table;
+    }
+
+    /**
+     * The command line interface of the query engine.
+     */
+    private static class Arguments {
+        @Parameter(names = "--run", description = "An output file with a trace, may be compressed.")
+        private String run = null;
+
+        @Parameter(names = "--delta-trace", description = "A delta trace, requires `--scenario`.")
+        private String deltaTrace = null;
+
+        @Parameter(names = "--scenario", description = "The scenario of the delta trace.")
+        private String scenario = null;
+
+        @Parameter(names = "--queries", required = true,
+                description = "A JSON object mapping names to queries like `statQueries` of a scenario.")
+        private String queries;
+
+        @Parameter(names = "--from")
+        private int from = 0;
+
+        @Parameter(names = "--to", description = "The last tick, defaults to the last recorded tick.")
+        private int to = -1;
+
+        @Parameter(names = "--out", description = "The file to write to, `-` for standard output.")
+        private String out = "-";
+    }
+
+    public static void main(String[] args) throws IOException {
+        final Arguments arguments = new Arguments();
+        JCommander.newBuilder().addObject(arguments).args(args).build();
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final RecordedRun run;
+        if (arguments.run != null) {
+            run = RecordedRun.read(objectMapper, new File(arguments.run));
+        } else if (arguments.deltaTrace != null && arguments.scenario != null) {
+            final Scenario scenario = objectMapper.readValue(new File(arguments.scenario), Scenario.class);
+            run = new RecordedRun(scenario.getGridSize());
+            try (InputStream stream = OutputFiles.open(new File(arguments.deltaTrace))) {
+                DeltaTrace.read(stream).forEach(run);
+            }
+        } else {
+            throw new IllegalArgumentException("either `--run` or `--delta-trace` and `--scenario` are required");
+        }
+
+        final Map<String, Query> queries = objectMapper.readValue(
+            new File(arguments.queries), new TypeReference<LinkedHashMap<String, Query>>() {}
+        );
+        final Map<String, List<Statistics>> statistics = new QueryEngine(run).query(
+            queries, arguments.from, arguments.to < 0 ? run.size() - 1 : arguments.to
+        );
+
+        if (arguments.out.equals("-")) {
+            System.out.println(objectMapper.writeValueAsString(statistics));
+        } else {
+            try (OutputStream stream = OutputFiles.create(new File(arguments.out))) {
+                objectMapper.writeValue(stream, statistics);
+            }
+        }
+    }
+}
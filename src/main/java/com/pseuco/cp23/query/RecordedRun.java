@@ -0,0 +1,146 @@
+package com.pseuco.cp23.query;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.TraceEntry;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.output.OutputFiles;
+
+/**
+ * The positions and infection states of a population over the ticks of a run.
+ *
+ * <p>
+ * Only what statistics queries need is kept, i.e., per tick and person the index of the
+ * cell and the infection state. The run is filled tick by tick with trace entries, e.g.,
+ * from an output file, a delta trace, or as the trace listener of an engine.
+ * </p>
+ */
+public class RecordedRun implements Consumer<TraceEntry> {
+    private final XY gridSize;
+
+    private final List<int[]> cells = new ArrayList<>();
+    private final List<byte[]> states = new ArrayList<>();
+
+    /**
+     * Constructs an empty run on a grid of the given size.
+     *
+     * @param gridSize The size of the grid.
+     */
+    public RecordedRun(XY gridSize) {
+        if ((long) gridSize.getX() * gridSize.getY() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("grids are limited to " + Integer.MAX_VALUE + " cells");
+        }
+        this.gridSize = gridSize;
+    }
+
+    /**
+     * Reads the run from the trace of an output file, which may be compressed.
+     *
+     * <p>
+     * The file is parsed as a stream, i.e., the full trace is never materialized.
+     * </p>
+     *
+     * @param objectMapper The object mapper used for deserialization.
+     * @param file         The output file to read.
+     * @return The run recorded in the output file.
+     * @throws IOException If reading the file fails or it contains no trace.
+     */
+    public static RecordedRun read(ObjectMapper objectMapper, File file) throws IOException {
+        try (InputStream stream = OutputFiles.open(file);
+                JsonParser parser = objectMapper.getFactory().createParser(stream)) {
+            RecordedRun run = null;
+            boolean traced = false;
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("expected an output object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if (field.equals("scenario")) {
+                    run = new RecordedRun(parser.readValueAs(Scenario.class).getGridSize());
+                } else if (field.equals("trace")) {
+                    if (run == null) {
+                        throw new IOException("the trace precedes the scenario");
+                    }
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        run.accept(parser.readValueAs(TraceEntry.class));
+                    }
+                    traced = true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!traced || run.size() == 0) {
+                throw new IOException("the output contains no trace");
+            }
+            return run;
+        }
+    }
+
+    /**
+     * Appends the next tick.
+     *
+     * @param entry The trace entry of the tick.
+     */
+    @Override
+    public void accept(TraceEntry entry) {
+        final List<PersonInfo> population = entry.getPopulation();
+        final int[] cells = new int[population.size()];
+        final byte[] states = new byte[population.size()];
+        for (int id = 0; id < cells.length; id++) {
+            final PersonInfo info = population.get(id);
+            cells[id] = info.getPosition().getY() * this.gridSize.getX() + info.getPosition().getX();
+            states[id] = (byte) info.getInfectionState().getState().ordinal();
+        }
+        this.cells.add(cells);
+        this.states.add(states);
+    }
+
+    /**
+     * Returns the size of the grid.
+     *
+     * @return The size of the grid.
+     */
+    public XY getGridSize() {
+        return this.gridSize;
+    }
+
+    /**
+     * Returns the number of recorded ticks.
+     *
+     * @return The number of recorded ticks.
+     */
+    public int size() {
+        return this.cells.size();
+    }
+
+    /**
+     * Returns the cells of the persons, given as <em>y * width + x</em>, at a tick.
+     *
+     * @param tick The tick.
+     * @return The cells of the persons ordered by id.
+     */
+    int[] getCells(int tick) {
+        return this.cells.get(tick);
+    }
+
+    /**
+     * Returns the ordinals of the infection states of the persons at a tick.
+     *
+     * @param tick The tick.
+     * @return The ordinals of the infection states of the persons ordered by id.
+     */
+    byte[] getStates(int tick) {
+        return this.states.get(tick);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Answering statistics queries over recorded runs without re-running the simulation.
+ */
+package com.pseuco.cp23.query;
@@ -0,0 +1,208 @@
+package com.pseuco.cp23.simulation.auto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.pseuco.cp23.model.Partition;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+/**
+ * Chooses the fastest engine and padding for a scenario.
+ *
+ * <p>
+ * The work of a scenario is estimated from its population, grid, partition and infection
+ * radius. Scenarios with too little work per tick for the threads of the concurrent engines
+ * to pay off run on the slug right away. Otherwise, every candidate simulates the first ticks of
+ * the scenario twice, once with twice as many ticks as the other. The difference of both
+ * runs is the time per tick, the rest is the time to set the engine up, which gives an
+ * estimate for the full run. The candidate with the lowest estimate is chosen.
+ * </p>
+ */
+public class Calibration {
+    /**
+     * The default number of ticks of the shorter calibration run.
+     */
+    public static final int DEFAULT_TICKS = 8;
+
+    // the work per tick below which the rocket spends more time on syncing its patches than it saves,
+    // e.g., 25 patches cost about 1ms per tick, which is the time the slug takes for a work of 1300 per tick
+    private static final double MINIMAL_WORK_PER_TICK = 1e3;
+
+    private final Scenario scenario;
+    private final int ticks;
+    private final int processors;
+    private final Map<Candidate, Double> estimates = new LinkedHashMap<>();
+
+    /**
+     * Constructs a calibration for the scenario.
+     *
+     * @param scenario The scenario to choose the engine for.
+     * @param ticks    The number of ticks of the shorter calibration run.
+     */
+    public Calibration(Scenario scenario, int ticks) {
+        this(scenario, ticks, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a calibration for the scenario on the given number of processors.
+     *
+     * @param scenario   The scenario to choose the engine for.
+     * @param ticks      The number of ticks of the shorter calibration run.
+     * @param processors The number of processors the scenario will run on.
+     */
+    public Calibration(Scenario scenario, int ticks, int processors) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("the calibration needs at least one tick");
+        }
+        this.scenario = scenario;
+        this.ticks = ticks;
+        this.processors = processors;
+    }
+
+    /**
+     * Estimates the work of the scenario as the number of persons times the ticks,
+     * weighted by the expected number of persons within the infection radius.
+     *
+     * @return The estimated work.
+     */
+    public double estimateWork() {
+        final double population = this.scenario.getPopulation().size();
+        final double area = (double) this.scenario.getGridSize().getX() * this.scenario.getGridSize().getY();
+        final int radius = this.scenario.getParameters().getInfectionRadius();
+        // the number of cells within the infection radius
+        final double reach = 2.0 * radius * radius + 2.0 * radius + 1;
+        return population * this.scenario.getTicks() * (1 + population / area * reach);
+    }
+
+    /**
+     * Returns the candidates worth calibrating for the scenario.
+     *
+     * <p>
+     * The rocket and the starship are candidates only if the scenario has more than one
+     * patch, there is more than one processor and the work per tick is large enough. They are
+     * tried with the smallest sufficient padding and two larger ones, a larger padding
+     * means less syncs but more work in the paddings.
+     * </p>
+     *
+     * @return The candidates, the slug first.
+     */
+    public List<Candidate> getCandidates() {
+        final List<Candidate> candidates = new ArrayList<>();
+        candidates.add(new Candidate(Candidate.Engine.SLUG, 0));
+
+        final Partition partition = this.scenario.getPartition();
+        final int patches = (partition.getX().size() + 1) * (partition.getY().size() + 1);
+        if (patches < 2 || this.processors < 2
+                || this.estimateWork() < MINIMAL_WORK_PER_TICK * this.scenario.getTicks()) {
+            return candidates;
+        }
+
+        // a single tick spreads the uncertainty by two cells of movement plus the infection radius
+        final int minimal = this.scenario.getParameters().getInfectionRadius() + 2;
+        final int largest = Math.max(this.scenario.getGridSize().getX(), this.scenario.getGridSize().getY());
+        for (int padding = minimal; padding <= 4 * minimal; padding *= 2) {
+            candidates.add(new Candidate(Candidate.Engine.ROCKET, Math.min(padding, largest)));
+            if (padding >= largest) {
+                break;
+            }
+        }
+        candidates.add(new Candidate(Candidate.Engine.STARSHIP, minimal));
+        return candidates;
+    }
+
+    /**
+     * Calibrates the candidates and chooses the fastest one.
+     *
+     * <p>
+     * If calibrating the candidates would simulate more than a quarter of the ticks of the
+     * scenario, the calibration is skipped and the rocket with the medium padding is chosen among the
+     * concurrent candidates.
+     * </p>
+     *
+     * @return The chosen candidate.
+     */
+    public Candidate select() {
+        this.estimates.clear();
+        final List<Candidate> candidates = this.getCandidates();
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        // every candidate simulates the ticks once and twice as many ticks once more
+        if (4 * 3 * this.ticks * candidates.size() > this.scenario.getTicks()) {
+            final List<Candidate> rockets = candidates.stream()
+                    .filter(candidate -> candidate.getEngine() == Candidate.Engine.ROCKET)
+                    .collect(Collectors.toList());
+            return rockets.get(rockets.size() / 2);
+        }
+
+        // warm the common code up such that the first candidate isn't measured while it is compiled
+        this.time(candidates.get(0), this.ticks);
+
+        Candidate fastest = null;
+        for (Candidate candidate : candidates) {
+            final long shorter = this.time(candidate, this.ticks);
+            final long longer = this.time(candidate, 2 * this.ticks);
+            if (shorter < 0 || longer < 0) {
+                continue;
+            }
+            final double perTick = Math.max(0, longer - shorter) / (double) this.ticks;
+            final double setup = Math.max(0, shorter - perTick * this.ticks);
+            final double estimate = (setup + perTick * this.scenario.getTicks()) / 1e6;
+            this.estimates.put(candidate, estimate);
+            if (fastest == null || estimate < this.estimates.get(fastest)) {
+                fastest = candidate;
+            }
+        }
+        return fastest != null ? fastest : candidates.get(0);
+    }
+
+    /**
+     * Returns the estimated time of the full run of each calibrated candidate.
+     *
+     * @return The estimates in milliseconds by candidate, empty if the calibration was skipped.
+     */
+    public Map<Candidate, Double> getEstimates() {
+        return Collections.unmodifiableMap(this.estimates);
+    }
+
+    /**
+     * @return the time in nanoseconds to set up the candidate and simulate the ticks, -1 if the padding is insufficient
+     */
+    private long time(Candidate candidate, int ticks) {
+        final Scenario prefix = this.prefix(ticks);
+        final long start = System.nanoTime();
+        try {
+            final Simulation simulation = candidate.create(prefix);
+            simulation.run();
+        } catch (InsufficientPaddingException error) {
+            return -1;
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return a copy of the scenario which only simulates the first ticks
+     */
+    private Scenario prefix(int ticks) {
+        return new Scenario(
+                this.scenario.getName(),
+                this.scenario.getParameters(),
+                ticks,
+                this.scenario.getGridSize(),
+                this.scenario.getTrace(),
+                new Partition(
+                        new ArrayList<>(this.scenario.getPartition().getX()),
+                        new ArrayList<>(this.scenario.getPartition().getY())
+                ),
+                this.scenario.getObstacles(),
+                this.scenario.getQueries(),
+                this.scenario.getPopulation()
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package com.pseuco.cp23.simulation.auto;
+
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.simulation.rocket.Starship;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+/**
+ * Represents an engine with its settings which a calibration may choose.
+ */
+public class Candidate {
+    /**
+     * The engines a candidate may use.
+     */
+    public enum Engine {
+        SLUG, ROCKET, STARSHIP
+    }
+
+    private final Engine engine;
+    private final int padding;
+
+    /**
+     * Constructs a candidate with the given engine and padding.
+     *
+     * @param engine  The engine.
+     * @param padding The padding of the patches, ignored by the slug.
+     */
+    public Candidate(Engine engine, int padding) {
+        this.engine = engine;
+        this.padding = padding;
+    }
+
+    /**
+     * Returns the engine.
+     *
+     * @return The engine.
+     */
+    public Engine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Returns the padding of the patches.
+     *
+     * @return The padding of the patches.
+     */
+    public int getPadding() {
+        return this.padding;
+    }
+
+    /**
+     * Creates the engine for the scenario.
+     *
+     * @param scenario The scenario to simulate.
+     * @return The engine with the settings of the candidate.
+     * @throws InsufficientPaddingException If the padding is insufficient for the scenario.
+     */
+    public Simulation create(Scenario scenario) throws InsufficientPaddingException {
+        switch (this.engine) {
+            case ROCKET:
+                return new Rocket(scenario, this.padding, new DummyValidator());
+            case STARSHIP:
+                return new Starship(scenario, this.padding);
+            default:
+                return new Slug(scenario);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final String name = this.engine.name().toLowerCase();
+        return this.engine == Engine.SLUG ? name : name + " (padding " + this.padding + ")";
+    }
+}
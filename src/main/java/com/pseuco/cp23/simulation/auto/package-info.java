@@ -0,0 +1,4 @@
+/**
+ * Chooses the engine and its settings for a scenario with a short calibration run.
+ */
+package com.pseuco.cp23.simulation.auto;
@@ -0,0 +1,66 @@
+package com.pseuco.cp23.simulation.common;
+
+import java.util.List;
+
+/**
+ * Spreads the infection within a population for a single tick.
+ *
+ * <p>
+ * A person gets infected if another person within the infection radius, measured in
+ * Manhattan distance, is infectious and coughing while the person is breathing. Newly
+ * infected persons are not yet infectious, hence, the result does not depend on the order
+ * in which pairs are considered.
+ * </p>
+ *
+ * <p>
+ * Kernels keep buffers between invocations and must not be shared between threads.
+ * </p>
+ */
+public interface InfectionKernel {
+    /**
+     * Spreads the infection within the given population.
+     *
+     * @param population      The population.
+     * @param infectionRadius The infection radius.
+     */
+    public void spread(List<Person> population, int infectionRadius);
+
+    /**
+     * Creates the fastest kernel supported by the running JVM.
+     *
+     * <p>
+     * The kernel uses a prefix sum over rotated coordinates whenever many sources are
+     * densely packed, e.g., for a large infection radius, and tests pairs otherwise, see
+     * {@link PrefixSumInfectionKernel}.
+     * </p>
+     *
+     * @return A new kernel.
+     */
+    public static InfectionKernel create() {
+        return new PrefixSumInfectionKernel(createPairwise());
+    }
+
+    /**
+     * Creates the fastest kernel testing pairs supported by the running JVM.
+     *
+     * <p>
+     * The vectorized kernel requires the <em>jdk.incubator.vector</em> module, e.g., by
+     * passing <em>--add-modules jdk.incubator.vector</em> to the JVM. Without the module
+     * the scalar kernel is used.
+     * </p>
+     *
+     * @return A new kernel.
+     */
+    public static InfectionKernel createPairwise() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (InfectionKernel) Class.forName("com.pseuco.cp23.simulation.common.VectorInfectionKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError error) {
+                // fall back to the scalar kernel
+            }
+        }
+        return new ScalarInfectionKernel();
+    }
+}
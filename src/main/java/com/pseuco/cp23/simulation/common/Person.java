@@ -25,25 +25,78 @@ public class Person {
         }
     }
 
+    /**
+     * The random number generator of a person, a chain of SHA-256 digests starting with
+     * the person's seed.
+     *
+     * <p>
+     * Only the current digest is kept since it is the state of the chain. Its digests are
+     * never modified, hence, clones share them. The decisions of a tick, i.e., whether the
+     * person coughs or breathes and how it accelerates, are derived once per tick and
+     * packed into an int. All generators of a thread share one SHA-256 instance.
+     * </p>
+     */
     public static class RNG {
-        private final MessageDigest messageDigest;
+        private static final ThreadLocal<MessageDigest> MESSAGE_DIGEST = ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException error) {
+                throw new RuntimeException(error);
+            }
+        });
+
+        private static final Direction[] DIRECTIONS = Direction.values();
+
+        private static final int COUGHING = 1;
+        private static final int BREATHING = 2;
+        private static final int ACCELERATION_SHIFT = 2;
 
         private final Parameters parameters;
 
         private byte[] digest;
+        private int decisions;
+
+        // the number of ticks since the seed and where to look the digests up ahead of time
+        private long index = 0;
+        private int person = -1;
+        private RngLookahead lookahead = null;
 
         public RNG(byte[] seed, Parameters parameters) {
-            try {
-                this.messageDigest = MessageDigest.getInstance("SHA-256");
-            } catch (NoSuchAlgorithmException error) {
-                throw new RuntimeException(error);
-            }
             this.parameters = parameters;
-            this.digest = seed;
+            this.setDigest(seed);
+        }
+
+        /**
+         * Constructs a copy of the given generator sharing its digest.
+         *
+         * @param other The generator to copy.
+         */
+        private RNG(RNG other) {
+            this.parameters = other.parameters;
+            this.digest = other.digest;
+            this.decisions = other.decisions;
+            this.index = other.index;
+            this.person = other.person;
+            this.lookahead = other.lookahead;
         }
 
         public void tick() {
-            this.digest = messageDigest.digest(this.digest);
+            this.index++;
+            final byte[] next = this.lookahead == null ? null : this.lookahead.get(this.person, this.index);
+            this.setDigest(next != null ? next : MESSAGE_DIGEST.get().digest(this.digest));
+        }
+
+        private void setDigest(byte[] digest) {
+            this.digest = digest;
+            int decisions = 0;
+            if (this.getUnsignedByte(0) < this.parameters.getCoughThreshold()) {
+                decisions |= COUGHING;
+            }
+            if (this.getUnsignedByte(1) < this.parameters.getBreathThreshold()) {
+                decisions |= BREATHING;
+            }
+            final int acceleration = this.getUnsignedByte(2) / this.parameters.getAccelerationDivisor();
+            this.decisions = decisions | Math.min(acceleration, Direction.NONE.ordinal()) << ACCELERATION_SHIFT;
         }
 
         public byte[] getDigest() {
@@ -55,19 +108,15 @@ public class Person {
         }
 
         public boolean isCoughing() {
-            return this.getUnsignedByte(0) < this.parameters.getCoughThreshold();
+            return (this.decisions & COUGHING) != 0;
         }
 
         public boolean isBreathing() {
-            return this.getUnsignedByte(1) < this.parameters.getBreathThreshold();
+            return (this.decisions & BREATHING) != 0;
         }
 
         public Direction getAcceleration() {
-            final int index = this.getUnsignedByte(2) / this.parameters.getAccelerationDivisor();
-            if (index >= Direction.values().length) {
-                return Direction.NONE;
-            }
-            return Direction.values()[index];
+            return DIRECTIONS[this.decisions >>> ACCELERATION_SHIFT];
         }
     }
 
@@ -108,6 +157,29 @@ public class Person {
         this.name = info.getName();
     }
 
+    /**
+     * Constructs a clone of the given person in the given context.
+     *
+     * <p>
+     * The clone has the state the person would be restored to from its info object, i.e.,
+     * it has no ghost, but doesn't go through the info object.
+     * </p>
+     *
+     * @param other   The person to clone.
+     * @param context The context of the clone.
+     */
+    private Person(Person other, Context context) {
+        this.id = other.id;
+        this.context = context;
+        this.parameters = other.parameters;
+        this.rng = new RNG(other.rng);
+        this.name = other.name;
+        this.position = other.position;
+        this.direction = other.direction;
+        this.state = other.state;
+        this.inStateSince = other.inStateSince;
+    }
+
     /**
      * Returns the id of the person.
      *
@@ -257,7 +329,23 @@ public class Person {
      * @return The cloned person.
      */
     public Person clone(Context context) {
-        return new Person(this.id, context, this.parameters, this.getInfo());
+        return new Person(this, context);
+    }
+
+    /**
+     * Lets the person take its random numbers from the lookahead instead of hashing them.
+     *
+     * <p>
+     * Must be called before the first tick of a person constructed from the scenario, the
+     * person's id must be its index in the population the lookahead was constructed for.
+     * Clones inherit the lookahead.
+     * </p>
+     *
+     * @param lookahead The lookahead computing the digests of the population.
+     */
+    public void setRngLookahead(RngLookahead lookahead) {
+        this.rng.person = this.id;
+        this.rng.lookahead = lookahead;
     }
 
     /**
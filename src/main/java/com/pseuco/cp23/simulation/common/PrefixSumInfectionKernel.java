@@ -0,0 +1,215 @@
+package com.pseuco.cp23.simulation.common;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.pseuco.cp23.model.XY;
+
+/**
+ * An infection kernel answering whether a person is in range of a source in constant time.
+ *
+ * <p>
+ * Rotating the grid by 45 degrees, i.e., using the coordinates <em>u = x + y</em> and
+ * <em>v = x - y</em>, turns the Manhattan distance into the Chebyshev distance. Hence, the
+ * persons within the infection radius <em>r</em> of a target form the axis-aligned square
+ * <em>[u - r, u + r] x [v - r, v + r]</em> in rotated coordinates. The kernel counts the
+ * sources, i.e., the infectious and coughing persons, in a two-dimensional prefix sum over
+ * the rotated coordinates and looks up the number of sources in each target's square
+ * with four reads.
+ * </p>
+ *
+ * <p>
+ * The prefix sum only spans the sources which may reach a susceptible and breathing
+ * target, i.e., the bounding box of the targets grown by the radius. Building it takes
+ * time proportional to its area while testing pairs takes time proportional to the
+ * number of sources times the size of the population. If a fallback kernel is given, the
+ * kernel estimates both and lets the fallback test the pairs whenever that is cheaper,
+ * e.g., for few sources or sources spread sparsely over a large area.
+ * </p>
+ */
+public class PrefixSumInfectionKernel implements InfectionKernel {
+    /**
+     * The number of pairs tested in the time it takes to build one cell of the prefix sum.
+     */
+    private static final int PAIRS_PER_CELL = 4;
+
+    /**
+     * The number of cells built in the time it takes to infect a target in range of a
+     * source or to look up the square of a target, both access the persons at random.
+     */
+    private static final int CELLS_PER_LOOKUP = 10;
+
+    /**
+     * The largest prefix sum built, larger ones are left to the fallback.
+     */
+    private static final int MAX_CELLS = 1 << 24;
+
+    private final InfectionKernel fallback;
+
+    private int[] us = new int[0];
+    private int[] vs = new int[0];
+    private int[] sources = new int[0];
+    private int[] targets = new int[0];
+    private int[] prefix = new int[0];
+
+    /**
+     * Constructs a kernel which always uses the prefix sum.
+     */
+    public PrefixSumInfectionKernel() {
+        this(null);
+    }
+
+    /**
+     * Constructs a kernel which tests pairs with the given kernel if that is cheaper.
+     *
+     * @param fallback The kernel testing pairs or null to always use the prefix sum.
+     */
+    public PrefixSumInfectionKernel(InfectionKernel fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void spread(List<Person> population, int infectionRadius) {
+        final int size = population.size();
+        if (this.us.length < size) {
+            final int capacity = Math.max(size, 2 * this.us.length);
+            this.us = new int[capacity];
+            this.vs = new int[capacity];
+            this.sources = new int[capacity];
+            this.targets = new int[capacity];
+        }
+
+        // the bounding box of the targets in rotated coordinates
+        int numberOfSources = 0;
+        int numberOfTargets = 0;
+        int minU = Integer.MAX_VALUE;
+        int maxU = Integer.MIN_VALUE;
+        int minV = Integer.MAX_VALUE;
+        int maxV = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            final Person person = population.get(i);
+            final XY position = person.getPosition();
+            final int u = position.getX() + position.getY();
+            final int v = position.getX() - position.getY();
+            this.us[i] = u;
+            this.vs[i] = v;
+            if (person.isInfectious() && person.isCoughing()) {
+                this.sources[numberOfSources++] = i;
+            } else if (person.isSusceptible() && person.isBreathing()) {
+                this.targets[numberOfTargets++] = i;
+                minU = Math.min(minU, u);
+                maxU = Math.max(maxU, u);
+                minV = Math.min(minV, v);
+                maxV = Math.max(maxV, v);
+            }
+        }
+        if (numberOfSources == 0 || numberOfTargets == 0) {
+            return;
+        }
+
+        // the density of the targets per cell of the rotated grid, half of which are cells
+        final double density = 2.0 * numberOfTargets / (((double) maxU - minU + 1) * ((double) maxV - minV + 1));
+
+        // only the sources in reach of a target matter, shrink the box to them
+        final int reachMinU = minU - infectionRadius;
+        final int reachMaxU = maxU + infectionRadius;
+        final int reachMinV = minV - infectionRadius;
+        final int reachMaxV = maxV + infectionRadius;
+        int inReach = 0;
+        minU = Integer.MAX_VALUE;
+        maxU = Integer.MIN_VALUE;
+        minV = Integer.MAX_VALUE;
+        maxV = Integer.MIN_VALUE;
+        for (int s = 0; s < numberOfSources; s++) {
+            final int source = this.sources[s];
+            final int u = this.us[source];
+            final int v = this.vs[source];
+            if (reachMinU <= u && u <= reachMaxU && reachMinV <= v && v <= reachMaxV) {
+                this.sources[inReach++] = source;
+                minU = Math.min(minU, u);
+                maxU = Math.max(maxU, u);
+                minV = Math.min(minV, v);
+                maxV = Math.max(maxV, v);
+            }
+        }
+        if (inReach == 0) {
+            return;
+        }
+
+        final long width = (long) maxU - minU + 1;
+        final long height = (long) maxV - minV + 1;
+        final long cells = (width + 1) * (height + 1);
+        if (cells > MAX_CELLS || (this.fallback != null && this.isPairwiseCheaper(
+                cells, size, numberOfTargets, inReach, infectionRadius, density))) {
+            if (this.fallback == null) {
+                throw new IllegalStateException("the prefix sum would span " + cells + " cells");
+            }
+            this.fallback.spread(population, infectionRadius);
+            return;
+        }
+
+        this.buildPrefix(inReach, minU, minV, (int) width, (int) height);
+
+        final int stride = (int) width + 1;
+        for (int t = 0; t < numberOfTargets; t++) {
+            final int target = this.targets[t];
+            // the target's square clipped to the box, in prefix sum coordinates
+            final int left = Math.max(this.us[target] - infectionRadius, minU) - minU;
+            final int right = Math.min(this.us[target] + infectionRadius, maxU) - minU + 1;
+            final int top = Math.max(this.vs[target] - infectionRadius, minV) - minV;
+            final int bottom = Math.min(this.vs[target] + infectionRadius, maxV) - minV + 1;
+            if (left >= right || top >= bottom) {
+                continue;
+            }
+            final int count = this.prefix[bottom * stride + right] - this.prefix[top * stride + right]
+                    - this.prefix[bottom * stride + left] + this.prefix[top * stride + left];
+            if (count > 0) {
+                population.get(target).infect();
+            }
+        }
+    }
+
+    /**
+     * Estimates whether testing pairs is cheaper than building the prefix sum, both in
+     * the time it takes to build a cell of the prefix sum.
+     *
+     * <p>
+     * Testing pairs compares every source with every person and infects the targets in
+     * range, i.e., the targets in a diamond of <em>2r(r + 1) + 1</em> cells around each
+     * source. The prefix sum is built over its cells and looked up once per target.
+     * </p>
+     */
+    private boolean isPairwiseCheaper(
+            long cells, int size, int numberOfTargets, int numberOfSources, int infectionRadius, double density) {
+        final double diamond = 2.0 * infectionRadius * (infectionRadius + 1) + 1;
+        final double inRange = numberOfSources * Math.min(numberOfTargets, diamond * density);
+        final double pairwise = (double) numberOfSources * size / PAIRS_PER_CELL + CELLS_PER_LOOKUP * inRange;
+        final double prefixSum = cells + (double) CELLS_PER_LOOKUP * numberOfTargets;
+        return pairwise <= prefixSum;
+    }
+
+    /**
+     * Builds the prefix sum of the sources in the box, the cell <em>(j, i)</em> counts the
+     * sources with rotated coordinates below <em>(minU + j, minV + i)</em>.
+     */
+    private void buildPrefix(int numberOfSources, int minU, int minV, int width, int height) {
+        final int stride = width + 1;
+        final int cells = stride * (height + 1);
+        if (this.prefix.length < cells) {
+            this.prefix = new int[Math.max(cells, this.prefix.length + this.prefix.length / 2)];
+        } else {
+            Arrays.fill(this.prefix, 0, cells, 0);
+        }
+        for (int s = 0; s < numberOfSources; s++) {
+            final int source = this.sources[s];
+            this.prefix[(this.vs[source] - minV + 1) * stride + this.us[source] - minU + 1]++;
+        }
+        for (int i = 1; i <= height; i++) {
+            int row = 0;
+            for (int j = 1; j <= width; j++) {
+                row += this.prefix[i * stride + j];
+                this.prefix[i * stride + j] = this.prefix[(i - 1) * stride + j] + row;
+            }
+        }
+    }
+}
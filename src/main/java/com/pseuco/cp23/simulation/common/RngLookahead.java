@@ -0,0 +1,193 @@
+package com.pseuco.cp23.simulation.common;
+
+import java.lang.invoke.VarHandle;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.pseuco.cp23.model.PersonInfo;
+
+/**
+ * Computes the digest chains of the persons' random number generators ahead of the
+ * simulation on spare cores.
+ *
+ * <p>
+ * The digest of a person at a tick only depends on the person's seed: it is the seed
+ * hashed that many times with SHA-256. Hence, producer threads can hash ahead while the
+ * engine moves persons and spreads the infection, and the engine merely reads the
+ * digests instead of hashing them itself. Every person has a ring buffer of
+ * <em>window</em> digests, the producers fill it up to <em>window - 1</em> digests ahead
+ * of the furthest digest taken from it.
+ * </p>
+ *
+ * <p>
+ * Lookups never block. A digest which is not computed yet or which was already
+ * overwritten, e.g., because a clone of the person lags behind, is reported as missing
+ * and the generator hashes it itself. Hence, the lookahead never changes the results, it
+ * only takes work off the engine's threads. All clones of a person share its ring, which
+ * saves the patches of the rocket from hashing the persons in their paddings again.
+ * </p>
+ */
+public class RngLookahead {
+    private static final int DIGEST_LENGTH = 32;
+
+    // producers which are ahead of all consumers back off up to this long
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int window;
+    private final int persons;
+
+    // the digests of person p at index i are stored at slot p * window + i % window
+    private final byte[] digests;
+    // the index of the digest in a slot, -1 while the slot is written
+    private final AtomicLongArray indices;
+    // the furthest index taken from the ring of each person
+    private final AtomicLongArray taken;
+
+    private final List<Thread> producers = new ArrayList<>();
+    private volatile boolean running = false;
+
+    /**
+     * Constructs a lookahead for the given population, see <em>start</em>.
+     *
+     * @param population The population, the index of a person is its id.
+     * @param window     The number of digests buffered per person.
+     * @param threads    The number of producer threads.
+     */
+    public RngLookahead(List<PersonInfo> population, int window, int threads) {
+        if (window < 2) {
+            throw new IllegalArgumentException("the window must hold at least two digests");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("at least one producer is required");
+        }
+        this.window = window;
+        this.persons = population.size();
+        this.digests = new byte[this.persons * window * DIGEST_LENGTH];
+        this.indices = new AtomicLongArray(this.persons * window);
+        this.taken = new AtomicLongArray(this.persons);
+
+        for (int person = 0; person < this.persons; person++) {
+            // the seed is the digest at index 0
+            System.arraycopy(
+                    population.get(person).getSeed(), 0,
+                    this.digests, person * window * DIGEST_LENGTH, DIGEST_LENGTH
+            );
+            for (int slot = 1; slot < window; slot++) {
+                this.indices.setPlain(person * window + slot, -1);
+            }
+        }
+
+        for (int producer = 0; producer < threads; producer++) {
+            final int first = producer;
+            this.producers.add(Thread.ofPlatform()
+                    .name("rng-lookahead-" + producer)
+                    .daemon()
+                    .unstarted(() -> this.produce(first, threads)));
+        }
+    }
+
+    /**
+     * Starts the producer threads.
+     */
+    public void start() {
+        this.running = true;
+        for (Thread producer : this.producers) {
+            producer.start();
+        }
+    }
+
+    /**
+     * Stops the producer threads and waits for them.
+     */
+    public void stop() {
+        this.running = false;
+        for (Thread producer : this.producers) {
+            LockSupport.unpark(producer);
+        }
+        for (Thread producer : this.producers) {
+            try {
+                producer.join();
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the digest of the person at the given index if it is buffered.
+     *
+     * <p>
+     * May be called from any thread without blocking.
+     * </p>
+     *
+     * @param person The id of the person.
+     * @param index  The index of the digest, i.e., the number of ticks since the seed.
+     * @return A fresh copy of the digest or null if it is not buffered.
+     */
+    public byte[] get(int person, long index) {
+        if (this.taken.getPlain(person) < index) {
+            // racing consumers may lower the mark, which merely delays the producer
+            this.taken.setRelease(person, index);
+        }
+
+        final int slot = person * this.window + (int) (index % this.window);
+        if (this.indices.getAcquire(slot) != index) {
+            return null;
+        }
+        final byte[] digest = new byte[DIGEST_LENGTH];
+        System.arraycopy(this.digests, slot * DIGEST_LENGTH, digest, 0, DIGEST_LENGTH);
+        // the copy is only valid if the producer didn't start overwriting the slot meanwhile
+        VarHandle.acquireFence();
+        return this.indices.getPlain(slot) == index ? digest : null;
+    }
+
+    /**
+     * Fills the rings of every <em>stride</em>-th person starting with <em>first</em>.
+     */
+    private void produce(int first, int stride) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException error) {
+            throw new RuntimeException(error);
+        }
+
+        // the index of the last digest produced for each person of this producer
+        final long[] produced = new long[(this.persons - first + stride - 1) / stride];
+        long backoff = 1000;
+        while (this.running) {
+            boolean progress = false;
+            for (int person = first, own = 0; person < this.persons; person += stride, own++) {
+                // hash one digest per person and round to keep the rings evenly filled
+                final long index = produced[own] + 1;
+                if (index >= this.taken.getAcquire(person) + this.window) {
+                    continue;
+                }
+                final int base = person * this.window;
+                final int previous = (base + (int) (produced[own] % this.window)) * DIGEST_LENGTH;
+                messageDigest.update(this.digests, previous, DIGEST_LENGTH);
+                final byte[] digest = messageDigest.digest();
+
+                final int slot = base + (int) (index % this.window);
+                this.indices.setOpaque(slot, -1);
+                VarHandle.storeStoreFence();
+                System.arraycopy(digest, 0, this.digests, slot * DIGEST_LENGTH, DIGEST_LENGTH);
+                this.indices.setRelease(slot, index);
+                produced[own] = index;
+                progress = true;
+            }
+            if (progress) {
+                backoff = 1000;
+            } else {
+                LockSupport.parkNanos(backoff);
+                backoff = Math.min(2 * backoff, MAX_BACKOFF_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.pseuco.cp23.simulation.common;
+
+import java.util.List;
+
+import com.pseuco.cp23.model.XY;
+
+/**
+ * An infection kernel testing distances one pair at a time.
+ *
+ * <p>
+ * The coordinates of the population are copied into primitive arrays first. Only the
+ * persons which are infectious and coughing are then tested against all others, and the
+ * state and random number generator of a target are only consulted if it is in range.
+ * </p>
+ */
+public class ScalarInfectionKernel implements InfectionKernel {
+    int[] xs = new int[0];
+    int[] ys = new int[0];
+
+    @Override
+    public void spread(List<Person> population, int infectionRadius) {
+        final int size = population.size();
+        if (this.xs.length < size) {
+            this.xs = new int[Math.max(size, 2 * this.xs.length)];
+            this.ys = new int[this.xs.length];
+        }
+        for (int i = 0; i < size; i++) {
+            final XY position = population.get(i).getPosition();
+            this.xs[i] = position.getX();
+            this.ys[i] = position.getY();
+        }
+        for (int i = 0; i < size; i++) {
+            final Person source = population.get(i);
+            if (source.isInfectious() && source.isCoughing()) {
+                this.spreadFrom(population, size, i, infectionRadius);
+            }
+        }
+    }
+
+    /**
+     * Infects the persons in range of the given source.
+     *
+     * @param population      The population.
+     * @param size            The size of the population.
+     * @param source          The index of the infectious and coughing person.
+     * @param infectionRadius The infection radius.
+     */
+    void spreadFrom(List<Person> population, int size, int source, int infectionRadius) {
+        this.spreadFrom(population, 0, size, source, infectionRadius);
+    }
+
+    /**
+     * Infects the persons in the given index range in range of the given source.
+     */
+    final void spreadFrom(List<Person> population, int from, int to, int source, int infectionRadius) {
+        final int x = this.xs[source];
+        final int y = this.ys[source];
+        for (int j = from; j < to; j++) {
+            if (Math.abs(this.xs[j] - x) + Math.abs(this.ys[j] - y) <= infectionRadius) {
+                infect(population, source, j);
+            }
+        }
+    }
+
+    /**
+     * Infects the target if it is breathing.
+     */
+    static void infect(List<Person> population, int source, int target) {
+        if (target != source) {
+            final Person person = population.get(target);
+            if (person.isSusceptible() && person.isBreathing()) {
+                person.infect();
+            }
+        }
+    }
+}
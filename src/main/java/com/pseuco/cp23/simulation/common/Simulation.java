@@ -1,10 +1,50 @@
 package com.pseuco.cp23.simulation.common;
 
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
 import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.TickResult;
+import com.pseuco.cp23.model.TraceEntry;
 
 /**
  * A common interface to be implemented by simulation engines.
  */
 public interface Simulation extends Runnable {
     public Output getOutput();
-}
\ No newline at end of file
+
+    /**
+     * Hands each trace entry to the given listener as soon as it is complete.
+     *
+     * <p>
+     * Entries passed to the listener are not retained, i.e., the trace of the output is
+     * empty. The listener is called in tick order and from a single thread at a time.
+     * Engines which do not support streaming their trace ignore the listener.
+     * </p>
+     *
+     * @param listener The listener receiving the trace entries.
+     * @return Whether the engine streams its trace to the listener.
+     */
+    public default boolean setTraceListener(Consumer<TraceEntry> listener) {
+        return false;
+    }
+
+    /**
+     * Publishes the results of every tick, starting with the initial one, while the
+     * simulation runs.
+     *
+     * <p>
+     * Must be called and subscribed to before the simulation is run. The engine waits for
+     * the subscriber's demand before it hands out the next tick, hence, a slow subscriber
+     * throttles the engine. Cancelling the subscription stops the simulation early, the
+     * output then covers the ticks simulated so far. Engines which do not support
+     * publishing their results return null.
+     * </p>
+     *
+     * @param trace Whether the results include the trace entry of the tick.
+     * @return The publisher of the results or null.
+     */
+    public default Flow.Publisher<TickResult> publishResults(boolean trace) {
+        return null;
+    }
+}
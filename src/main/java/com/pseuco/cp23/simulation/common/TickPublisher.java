@@ -0,0 +1,207 @@
+package com.pseuco.cp23.simulation.common;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TickResult;
+import com.pseuco.cp23.model.TraceEntry;
+
+/**
+ * Publishes the results of each tick of a simulation to a single subscriber.
+ *
+ * <p>
+ * The engine calls <em>publish</em> from its thread in tick order. Publishing blocks
+ * until the subscriber has requested another result, hence, a slow subscriber throttles
+ * the engine instead of results piling up. Once the subscriber cancels, publishing
+ * returns false and the engine stops. Results published before a subscriber subscribed
+ * are dropped.
+ * </p>
+ */
+public class TickPublisher implements Flow.Publisher<TickResult> {
+    private final boolean trace;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition requested = this.lock.newCondition();
+
+    private Flow.Subscriber<? super TickResult> subscriber = null;
+    private long demand = 0;
+    private boolean cancelled = false;
+    private boolean terminated = false;
+    private Throwable error = null;
+
+    /**
+     * Constructs a publisher without subscriber.
+     *
+     * @param trace Whether the results include the trace entry of the tick.
+     */
+    public TickPublisher(boolean trace) {
+        this.trace = trace;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super TickResult> subscriber) {
+        Objects.requireNonNull(subscriber);
+        final boolean accepted;
+        this.lock.lock();
+        try {
+            accepted = this.subscriber == null;
+            if (accepted) {
+                this.subscriber = subscriber;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("the results have a subscriber already"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                TickPublisher.this.request(n);
+            }
+
+            @Override
+            public void cancel() {
+                TickPublisher.this.cancel(null);
+            }
+        });
+    }
+
+    private void request(long n) {
+        if (n <= 0) {
+            this.cancel(new IllegalArgumentException("requested " + n + " results"));
+            return;
+        }
+        this.lock.lock();
+        try {
+            // the demand saturates at Long.MAX_VALUE, i.e., unbounded
+            this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+            this.requested.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void cancel(Throwable error) {
+        this.lock.lock();
+        try {
+            if (!this.cancelled) {
+                this.cancelled = true;
+                this.error = error;
+            }
+            this.requested.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the results include the trace entry of the tick.
+     *
+     * @return Whether the results include the trace entry of the tick.
+     */
+    public boolean includesTrace() {
+        return this.trace;
+    }
+
+    /**
+     * Publishes the results of a tick once the subscriber requested them.
+     *
+     * @param tick       The tick.
+     * @param statistics The statistics recorded so far by query, the last ones belong to
+     *                   the tick.
+     * @param trace      Supplies the trace entry of the tick, only called if the results
+     *                   include it.
+     * @return Whether the subscriber wants further results.
+     * @throws InterruptedException If interrupted while waiting for the subscriber.
+     */
+    public boolean publish(int tick, Map<String, List<Statistics>> statistics, Supplier<TraceEntry> trace)
+            throws InterruptedException {
+        final Flow.Subscriber<? super TickResult> subscriber;
+        this.lock.lock();
+        try {
+            if (this.subscriber == null) {
+                return true;
+            }
+            while (this.demand == 0 && !this.cancelled) {
+                this.requested.await();
+            }
+            if (this.cancelled) {
+                return false;
+            }
+            if (this.demand != Long.MAX_VALUE) {
+                this.demand--;
+            }
+            subscriber = this.subscriber;
+        } finally {
+            this.lock.unlock();
+        }
+
+        final Map<String, Statistics> latest = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Statistics>> entry : statistics.entrySet()) {
+            latest.put(entry.getKey(), entry.getValue().get(entry.getValue().size() - 1));
+        }
+        try {
+            subscriber.onNext(new TickResult(tick, latest, this.trace ? trace.get() : null));
+        } catch (RuntimeException error) {
+            // a failing subscriber is considered to have cancelled
+            this.cancel(null);
+            return false;
+        }
+
+        this.lock.lock();
+        try {
+            return !this.cancelled;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Signals the subscriber that the simulation is complete.
+     *
+     * <p>
+     * A subscriber which requested an invalid number of results receives the error
+     * instead. Cancelled subscribers receive nothing.
+     * </p>
+     */
+    public void complete() {
+        final Flow.Subscriber<? super TickResult> subscriber;
+        final Throwable error;
+        this.lock.lock();
+        try {
+            subscriber = this.subscriber;
+            error = this.error;
+            if (subscriber == null || this.terminated || (this.cancelled && error == null)) {
+                return;
+            }
+            this.cancelled = true;
+            this.terminated = true;
+        } finally {
+            this.lock.unlock();
+        }
+        if (error != null) {
+            subscriber.onError(error);
+        } else {
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.pseuco.cp23.simulation.common;
+
+import java.util.List;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * An infection kernel testing the distances of a source to several persons at once.
+ *
+ * <p>
+ * Uses the incubating Vector API, hence, this class must only be loaded if the
+ * <em>jdk.incubator.vector</em> module is present. Use <em>InfectionKernel.create</em>.
+ * </p>
+ */
+class VectorInfectionKernel extends ScalarInfectionKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    void spreadFrom(List<Person> population, int size, int source, int infectionRadius) {
+        final IntVector x = IntVector.broadcast(SPECIES, this.xs[source]);
+        final IntVector y = IntVector.broadcast(SPECIES, this.ys[source]);
+        final int bound = SPECIES.loopBound(size);
+        for (int j = 0; j < bound; j += SPECIES.length()) {
+            final IntVector deltaX = IntVector.fromArray(SPECIES, this.xs, j).sub(x).abs();
+            final IntVector deltaY = IntVector.fromArray(SPECIES, this.ys, j).sub(y).abs();
+            long matches = deltaX.add(deltaY).compare(VectorOperators.LE, infectionRadius).toLong();
+            while (matches != 0) {
+                infect(population, source, j + Long.numberOfTrailingZeros(matches));
+                matches &= matches - 1;
+            }
+        }
+        this.spreadFrom(population, bound, size, source, infectionRadius);
+    }
+}
@@ -4,6 +4,18 @@ import com.pseuco.cp23.simulation.common.Person;
 
 import java.util.List;
 
-public record Pair(int tick, List<Person> list_of_people) {
+/**
+ * The persons of a patch at a tick, either as clones or packed into an int array holding
+ * id, x, y and the ordinal of the infection state of each person
+ */
+public record Pair(int tick, List<Person> list_of_people, int[] compact_people) {
 
+    static final int COMPACT_STRIDE = 4;
+
+    /**
+     * @return the number of persons
+     */
+    public int size() {
+        return list_of_people != null ? list_of_people.size() : compact_people.length / COMPACT_STRIDE;
+    }
 }
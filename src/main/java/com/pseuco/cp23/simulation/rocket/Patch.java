@@ -1,26 +1,37 @@
 package com.pseuco.cp23.simulation.rocket;
 
+import com.pseuco.cp23.metrics.LiveMetrics;
+import com.pseuco.cp23.metrics.PatchMetrics;
+import com.pseuco.cp23.metrics.TimelineRecorder;
 import com.pseuco.cp23.model.Rectangle;
-import com.pseuco.cp23.model.Scenario;
-
-
 import com.pseuco.cp23.model.XY;
+
 import com.pseuco.cp23.simulation.common.Context;
+import com.pseuco.cp23.simulation.common.InfectionKernel;
 import com.pseuco.cp23.simulation.common.Person;
-import com.pseuco.cp23.simulation.common.Utils;
+import com.pseuco.cp23.simulation.common.RngLookahead;
 import com.pseuco.cp23.validator.Validator;
 
 import java.util.ArrayList;
 
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public class Patch extends Thread implements Context {
+public class Patch implements Runnable, Context {
 
     private final int patch_id;
     private final Rectangle patch_grid;
@@ -30,12 +41,21 @@ public class Patch extends Thread implements Context {
 
     private final List<Person> whole_population;
     private List<Patch> neighbours;
+    // the patches pulling from this one, they differ from the neighbours once the paddings differ per border
+    private List<Patch> pullers;
 
     private List<Rectangle> padding_obstacles;
     private CountDownLatch countdown_synced_patches;
     private final Lock lock = new ReentrantLock();
     private final Condition wait_to_sync = lock.newCondition();
 
+    // only used when the halo exchange overlaps with the interior
+    private ExecutorService halo_executor = null;
+    private Map<Patch, List<Person>> snapshots;
+    private int snapshot_tick = -1;
+    private List<Person> context_population;
+    private int[] occupancy;
+
     private final int k;
     private final Validator validator;
 
@@ -43,16 +63,24 @@ public class Patch extends Thread implements Context {
     private final int max_ticks;
 
     private final int infectionRadius;
+    private final InfectionKernel infection_kernel = InfectionKernel.create();
 
 
-    private final BlockingQueue<Pair> results_queue;
+    private ResultRing results = null;
+    private TraceSlots trace_slots = null;
 
-    /**
-     * @param results_queue The queue which people's traces at every tick will be transferred from this thread to the main one
-     */
-    public Patch(int patch_id, BlockingQueue<Pair> results_queue, Validator validator, Rectangle patch_grid, Rectangle padding_grid, int k, int max_ticks, int infectionRadius) {
+    private TickGate gate = null;
+
+    private boolean compact_results = false;
+
+    private PatchMetrics metrics = null;
+    // the time the interior moves of the current tick took, recorded with the other moves of the tick
+    private long interior_nanos = 0;
+    private LiveMetrics live = null;
+    private TimelineRecorder timeline = null;
+
+    public Patch(int patch_id, Validator validator, Rectangle patch_grid, Rectangle padding_grid, int k, int max_ticks, int infectionRadius) {
         this.patch_id = patch_id;
-        this.results_queue = results_queue;
         this.validator = validator;
         this.patch_grid = patch_grid;
         this.padding_grid = padding_grid;
@@ -62,6 +90,7 @@ public class Patch extends Thread implements Context {
 
         this.patch_population = new ArrayList<>();
         this.whole_population = new ArrayList<>();
+        this.context_population = this.whole_population;
         this.neighbours = new ArrayList<>();
         this.countdown_synced_patches = new CountDownLatch(0);
         this.current_tick = 0;
@@ -78,39 +107,176 @@ public class Patch extends Thread implements Context {
     }
 
     /**
-     * This method checks for the relevant obstacles inside the padding grid of this patch
+     * Lets the persons of the patch take their random numbers from the lookahead, must be called before the patch is started
      *
-     * @param all_obstacles the list of obstacles in the whole grid
+     * @param lookahead The lookahead shared by all patches
      */
-    public void addObstacles(List<Rectangle> all_obstacles) {
+    void setRngLookahead(RngLookahead lookahead) {
+        for (Person person : patch_population)
+            person.setRngLookahead(lookahead);
+    }
 
-        this.padding_obstacles = all_obstacles.stream()
-                .filter(this.padding_grid::overlaps)
-                .collect(Collectors.toList());
+    /**
+     * Sets the ring which the persons at every tick are transferred through from this thread to the main one,
+     * must be called before the patch is started
+     *
+     * @param results The ring read by the main thread
+     */
+    void setResults(ResultRing results) {
+        this.results = results;
+    }
+
+    /**
+     * Writes the infos of the persons at every tick into the slots of their ids, must be called before the patch is started
+     *
+     * @param trace_slots The slots shared by all patches
+     */
+    void setTraceSlots(TraceSlots trace_slots) {
+        this.trace_slots = trace_slots;
+    }
+
+    /**
+     * Sends only the id, position and state of the persons to the main thread, must be called before the patch is started
+     */
+    void enableCompactResults() {
+        this.compact_results = true;
+    }
+
+    /**
+     * Bounds how far the patch may run ahead of the handed out ticks, must be called before the patch is started
+     *
+     * @param gate The gate shared by all patches
+     */
+    void setGate(TickGate gate) {
+        this.gate = gate;
+    }
+
+    /**
+     * Enables recording runtime metrics, must be called before the patch is started
+     *
+     * @param metrics The metrics to record into
+     */
+    public void setMetrics(PatchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Enables publishing the progress while running, must be called before the patch is started
+     *
+     * @param live The counters shared by all patches
+     */
+    public void setLiveMetrics(LiveMetrics live) {
+        this.live = live;
+    }
+
+    /**
+     * Enables recording a timeline of ticks and syncs, must be called before the patch is started
+     *
+     * @param timeline The recorder shared by all patches
+     */
+    public void setTimeline(TimelineRecorder timeline) {
+        this.timeline = timeline;
+    }
+
+    private void begin(String name) {
+        if (this.timeline != null)
+            this.timeline.begin(name);
+    }
 
+    private void begin(String name, String argument_name, int argument) {
+        if (this.timeline != null)
+            this.timeline.begin(name, argument_name, argument);
+    }
+
+    private void begin(String name, String argument_name, int argument, String second_name, int second) {
+        if (this.timeline != null)
+            this.timeline.begin(name, argument_name, argument, second_name, second);
+    }
+
+    private void end(String name) {
+        if (this.timeline != null)
+            this.timeline.end(name);
     }
 
     /**
-     * This method checks which other patches overlap with this padding grid
-     * and may propagate information to and add them to the list of neighbours
-     * that we will need to sync with later
+     * @return the current time if metrics are recorded, 0 otherwise
+     */
+    private long startLap() {
+        return this.metrics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records the time since the start of the lap for the given phase
      *
-     * @param patches  the list of all patches
-     * @param scenario this is passed to the mayPropagateFrom method
+     * @return the start of the next lap
+     */
+    private long lap(PatchMetrics.Phase phase, long start) {
+        if (this.metrics == null)
+            return 0;
+        final long now = System.nanoTime();
+        this.metrics.record(phase, now - start);
+        return now;
+    }
+
+    /**
+     * @return the current time if live metrics are published, 0 otherwise
      */
-    public void addNeighbours(List<Patch> patches, Scenario scenario) {
+    private long startWait() {
+        return this.live == null ? 0 : System.nanoTime();
+    }
 
-        this.neighbours = patches.parallelStream()
-                .filter(patch -> this != patch) // Exclude the current patch
-                .filter(patch -> this.padding_grid.overlaps(patch.getPatch_grid()))
-                .filter(patch -> Utils.mayPropagateFrom(scenario, patch.getPatch_grid(), this.patch_grid))
+    /**
+     * Adds the time since the start of the wait to the live metrics
+     */
+    private void endWait(long start) {
+        if (this.live != null)
+            this.live.addSyncWait(this.patch_id, System.nanoTime() - start);
+    }
+
+    /**
+     * @param padding_obstacles the obstacles inside the padding grid of this patch
+     */
+    public void setObstacles(List<Rectangle> padding_obstacles) {
+        this.padding_obstacles = padding_obstacles;
+    }
+
+    /**
+     * Sets the other patches which overlap with this padding grid and may propagate
+     * information into this patch, we will need to sync with them later
+     *
+     * @param neighbours the neighbouring patches
+     */
+    public void setNeighbours(List<Patch> neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Sets the other patches which have this patch as neighbour and will sync with it,
+     * must be called on all patches after the neighbours were added
+     *
+     * @param patches the list of all patches
+     */
+    void findPullers(List<Patch> patches) {
+        this.pullers = patches.stream()
+                .filter(patch -> patch.neighbours.contains(this))
                 .collect(Collectors.toList());
 
-        // this count down latch is used to check whether all the neighbours
+        // this count down latch is used to check whether all the pullers
         // have synced with this thread or not, and then wait till they all did and then proceed
-        this.countdown_synced_patches = new CountDownLatch(this.neighbours.size());
+        this.countdown_synced_patches = new CountDownLatch(this.pullers.size());
     }
 
+    /**
+     * Lets the halo exchange run on the executor while the interior of the patch moves,
+     * must be called on all patches after the pullers were found and before they are started
+     *
+     * @param halo_executor the executor pulling the halos from the neighbours
+     */
+    public void enableOverlap(ExecutorService halo_executor) {
+        this.halo_executor = halo_executor;
+        // there are no snapshots to be taken before the first sync
+        this.countdown_synced_patches = new CountDownLatch(0);
+    }
 
     @Override
     public void run() {
@@ -120,18 +286,35 @@ public class Patch extends Thread implements Context {
             // Send to the main thread the relevant list of people
             // for statistics at tick 0
             if (current_tick == 0) {
-                List<Person> trace_list = new ArrayList<>();
-                for (Person person : patch_population)
-                    trace_list.add(person.clone(this));
                 try {
-                    results_queue.put(new Pair(0, trace_list));
+                    this.begin("put");
+                    results.put(this.resultsOf(0));
+                    this.end("put");
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
             }
 
+            // wait till the subscriber caught up, stop where all the other patches stop
+            try {
+                if (gate != null && !gate.enter(current_tick))
+                    break;
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            if (live != null)
+                live.setPatchTick(patch_id, current_tick);
+
+            // persons already moved in this tick while the halo was exchanged
+            Set<Person> moved = null;
+
             // Time to sync with other neighbours
-            if (current_tick % k == 0) {
+            if (current_tick % k == 0 && halo_executor != null) {
+                moved = this.overlappedSync();
+            } else if (current_tick % k == 0) {
+                final long sync_start = this.startLap();
+                final long wait_start = this.startWait();
 
                 // Signal all the other threads that wanted to sync with this one
                 // but were waiting for it to reach the same tick
@@ -140,47 +323,229 @@ public class Patch extends Thread implements Context {
                 lock.unlock();
 
                 // Forget about the old padding population and
-                // sync with all the neighbours and add persons
-                // they return to the new padding population
-                padding_population = neighbours.parallelStream()
-                        .flatMap(neighbour -> neighbour.Sync(this, current_tick).stream())
-                        .collect(Collectors.toList());
+                // sync with all the neighbours, each neighbour returns
+                // its persons in our padding sorted by id, a virtual thread
+                // waits for them itself instead of blocking the common pool
+                Stream<Patch> syncing = Thread.currentThread().isVirtual()
+                        ? neighbours.stream()
+                        : neighbours.parallelStream();
+                this.begin("halo");
+                List<List<Person>> halos = syncing
+                        .map(neighbour -> this.syncWith(neighbour, current_tick))
+                        .collect(Collectors.toCollection(ArrayList::new));
+                this.end("halo");
+                padding_population = new ArrayList<>();
+                halos.forEach(padding_population::addAll);
 
                 // reset whole population to include the new people
-                // in the padding after syncing
+                // in the padding after syncing, the patch population
+                // is sorted by id as well, hence, merging keeps the order
+                halos.add(patch_population);
                 whole_population.clear();
-                whole_population.addAll(padding_population);
-                whole_population.addAll(patch_population);
-                whole_population.sort(new Person.PersonIDComparator());
+                mergeById(halos, whole_population);
 
-                // keep waiting till all neighbours are also synced with us
+                // keep waiting till all pullers are also synced with us
                 // and proceed only when the countdown latch hit 0
                 try {
+                    this.begin("await");
                     countdown_synced_patches.await();
+                    this.end("await");
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
 
                 // initialize a new countdown latch for the next sync
-                countdown_synced_patches = new CountDownLatch(neighbours.size());
+                countdown_synced_patches = new CountDownLatch(pullers.size());
+                this.lap(PatchMetrics.Phase.SYNC, sync_start);
+                this.endWait(wait_start);
             }
             // perform a tick
-            this.tick();
+            this.begin("tick", "tick", current_tick);
+            this.tick(moved);
+            this.end("tick");
         }
 
+        if (live != null)
+            live.setPatchTick(patch_id, current_tick);
+
+
+    }
 
+
+    /**
+     * Merges lists of persons sorted by id into the target list keeping the order,
+     * this takes O(n log k) for n persons in k lists instead of sorting everything again
+     *
+     * @param lists  the lists to merge, each sorted by id
+     * @param target the list the merged persons are appended to
+     */
+    static void mergeById(List<List<Person>> lists, List<Person> target) {
+        final int[] positions = new int[lists.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(
+                Math.max(1, lists.size()),
+                Comparator.comparingInt((Integer list) -> lists.get(list).get(positions[list]).getId()));
+        for (int list = 0; list < lists.size(); list++)
+            if (!lists.get(list).isEmpty())
+                heads.add(list);
+
+        while (!heads.isEmpty()) {
+            int list = heads.poll();
+            target.add(lists.get(list).get(positions[list]));
+            positions[list]++;
+            if (positions[list] < lists.get(list).size())
+                heads.add(list);
+        }
     }
 
+    /**
+     * Publishes the snapshots for the neighbours and pulls the halo in the background,
+     * meanwhile the interior persons are moved, see moveInterior
+     *
+     * @return the persons which were already moved in the current tick
+     */
+    private Set<Person> overlappedSync() {
+        final long sync_start = this.startLap();
+        final int tick = this.current_tick;
+
+        // the snapshots of the last sync must all be taken before they are replaced
+        try {
+            final long wait_start = this.startWait();
+            this.begin("await");
+            countdown_synced_patches.await();
+            this.end("await");
+            this.endWait(wait_start);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+
+        // clone the persons for every neighbour now, as we won't wait for them
+        // to pull before the persons move on
+        Map<Patch, List<Person>> published = new HashMap<>();
+        for (Patch puller : pullers)
+            published.put(puller, this.patch_population.stream()
+                    .filter(person -> puller.getGrid().contains(person.getPosition()))
+                    .map(person -> person.clone(puller))
+                    .collect(Collectors.toList()));
+        lock.lock();
+        try {
+            countdown_synced_patches = new CountDownLatch(pullers.size());
+            snapshots = published;
+            snapshot_tick = tick;
+            wait_to_sync.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        Future<List<List<Person>>> pulling = halo_executor.submit(() -> neighbours.stream()
+                .map(neighbour -> neighbour.takeSnapshot(this, tick))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        // the sync and the movement are each recorded once per tick, like without the overlap,
+        // hence, the interior moves are added to the moves of the tick and left out of the sync
+        long lap = this.startLap();
+        final long publishing = lap - sync_start;
+
+        this.begin("interior");
+        validator.onPatchTick(tick, this.patch_id);
+        Set<Person> moved = this.moveInterior();
+        this.end("interior");
+        final long interior_end = this.startLap();
+        interior_nanos = interior_end - lap;
+        lap = interior_end;
+
+        List<List<Person>> halos;
+        try {
+            final long wait_start = this.startWait();
+            this.begin("halo");
+            halos = pulling.get();
+            this.end("halo");
+            this.endWait(wait_start);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        padding_population = new ArrayList<>();
+        halos.forEach(padding_population::addAll);
+        halos.add(patch_population);
+        whole_population.clear();
+        mergeById(halos, whole_population);
+        this.lap(PatchMetrics.Phase.SYNC, lap - publishing);
+        return moved;
+    }
+
+    /**
+     * Moves the persons whose move doesn't depend on the halo, that is, persons at least two
+     * cells away from the border of the patch whose lower id neighbours within two cells
+     * are moved as well. A move only looks at persons which were within two cells before,
+     * persons with a lower id have moved already and the others not, which holds for the
+     * moved persons as if the whole population was moved in id order.
+     *
+     * @return the moved persons
+     */
+    private Set<Person> moveInterior() {
+        final int left = patch_grid.getTopLeft().getX();
+        final int top = patch_grid.getTopLeft().getY();
+        final int width = patch_grid.getSize().getX();
+        final int height = patch_grid.getSize().getY();
+        if (occupancy == null)
+            occupancy = new int[width * height];
+
+        // the index plus one of the person on a cell, 0 if empty
+        final int size = patch_population.size();
+        final int[] cells = new int[size];
+        for (int i = 0; i < size; i++) {
+            final XY position = patch_population.get(i).getPosition();
+            cells[i] = (position.getY() - top) * width + position.getX() - left;
+            occupancy[cells[i]] = i + 1;
+        }
+
+        Set<Person> moved = new HashSet<>();
+        final boolean[] eligible = new boolean[size];
+        // the halo is out of reach, hence, only the patch population is checked for collisions
+        context_population = patch_population;
+        for (int i = 0; i < size; i++) {
+            final int x = cells[i] % width;
+            final int y = cells[i] / width;
+            boolean interior = x >= 2 && y >= 2 && x < width - 2 && y < height - 2;
+            for (int dy = -2; dy <= 2 && interior; dy++)
+                for (int dx = -2; dx <= 2 && interior; dx++) {
+                    final int other = occupancy[cells[i] + dy * width + dx] - 1;
+                    if (other >= 0 && other < i && !eligible[other])
+                        interior = false;
+                }
+            if (!interior)
+                continue;
+            eligible[i] = true;
+            Person person = patch_population.get(i);
+            validator.onPersonTick(this.current_tick, this.patch_id, person.getId());
+            person.tick();
+            moved.add(person);
+        }
+        context_population = whole_population;
+
+        for (int cell : cells)
+            occupancy[cell] = 0;
+        return moved;
+    }
 
-    private void tick() {
+    /**
+     * @param moved the persons already moved in this tick, null if none was moved
+     *              and the tick starts here
+     */
+    private void tick(Set<Person> moved) {
 
-        validator.onPatchTick(this.current_tick, this.patch_id);
+        if (moved == null)
+            validator.onPatchTick(this.current_tick, this.patch_id);
+        long lap = this.startLap();
         for (Person person : this.getPopulation()) {
+            if (moved != null && moved.contains(person))
+                continue;
             validator.onPersonTick(this.current_tick, this.patch_id, person.getId());
             person.tick();
         }
 
 
+        lap = this.lap(PatchMetrics.Phase.MOVEMENT, lap - interior_nanos);
+        interior_nanos = 0;
+
         List<Person> population = this.getPopulation();
 
         // go through the whole population add people on the patch grid
@@ -199,41 +564,56 @@ public class Patch extends Thread implements Context {
         }
 
         population.forEach(Person::bustGhost);
+        lap = this.lap(PatchMetrics.Phase.RECLASSIFICATION, lap);
 
-
-        for (int i = 0; i < population.size(); i++) {
-            for (int j = i + 1; j < population.size(); j++) {
-                final Person iPerson = population.get(i);
-                final Person jPerson = population.get(j);
-                final XY iPosition = iPerson.getPosition();
-                final XY jPosition = jPerson.getPosition();
-                final int deltaX = Math.abs(iPosition.getX() - jPosition.getX());
-                final int deltaY = Math.abs(iPosition.getY() - jPosition.getY());
-                final int distance = deltaX + deltaY;
-                if (distance <= infectionRadius) {
-                    if (iPerson.isInfectious() && iPerson.isCoughing() && jPerson.isBreathing()) {
-                        jPerson.infect();
-                    }
-                    if (jPerson.isInfectious() && jPerson.isCoughing() && iPerson.isBreathing()) {
-                        iPerson.infect();
-                    }
-                }
-            }
-        }
+        infection_kernel.spread(population, infectionRadius);
+        lap = this.lap(PatchMetrics.Phase.INFECTION, lap);
 
         // send to the main thread the relevant list of people
         // for statistics at the current tick
-        List<Person> trace_list = new ArrayList<>();
-        for (Person person : patch_population)
-            trace_list.add(person.clone(this));
         try {
-            results_queue.put(new Pair(current_tick + 1, trace_list));
+            this.begin("put");
+            results.put(this.resultsOf(current_tick + 1));
+            this.end("put");
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
+        this.lap(PatchMetrics.Phase.RESULTS, lap);
 
     }
 
+    /**
+     * Packs the persons of the patch for the main thread, either as clones or,
+     * if only statistics are needed, as their id, position and state, with trace
+     * slots their infos are written right into the trace entry of the tick first
+     *
+     * @param tick the tick the persons are at
+     * @return the results of the patch at the tick
+     */
+    private Pair resultsOf(int tick) {
+        if (trace_slots != null) {
+            for (Person person : patch_population)
+                trace_slots.write(tick, person.getId(), person.getInfo());
+            trace_slots.written(tick, patch_population.size());
+        }
+        if (compact_results) {
+            int[] people = new int[Pair.COMPACT_STRIDE * patch_population.size()];
+            int offset = 0;
+            for (Person person : patch_population) {
+                people[offset] = person.getId();
+                people[offset + 1] = person.getPosition().getX();
+                people[offset + 2] = person.getPosition().getY();
+                people[offset + 3] = person.getState().ordinal();
+                offset += Pair.COMPACT_STRIDE;
+            }
+            return new Pair(tick, null, people);
+        }
+        List<Person> trace_list = new ArrayList<>(patch_population.size());
+        for (Person person : patch_population)
+            trace_list.add(person.clone(this));
+        return new Pair(tick, trace_list, null);
+    }
+
     /**
      * @param caller_patch The patch that wants to sync with this one
      * @param current_tick The current tick the caller patch is at
@@ -243,8 +623,12 @@ public class Patch extends Thread implements Context {
         lock.lock();
         try {
             // wait till this patch thread is on the same tick as the caller patch
+            // and account the time the caller is held back to this patch
+            final long wait_start = this.startLap();
             while (this.current_tick != current_tick)
                 wait_to_sync.await();
+            if (this.metrics != null)
+                this.metrics.addBlockingNeighbours(System.nanoTime() - wait_start);
 
             // clone the relevant people for the caller patch into a list
             return this.patch_population.stream()
@@ -261,6 +645,56 @@ public class Patch extends Thread implements Context {
         }
     }
 
+    /**
+     * Syncs with the neighbour and records the sync on the timeline of the thread running it,
+     * that is, this patch or a thread of the common pool, hence, the span names both patches
+     *
+     * @param neighbour    The neighbour to pull the persons in the padding from
+     * @param current_tick The current tick of this patch
+     * @return The list of persons inside the neighbour and the padding of this patch
+     */
+    private List<Person> syncWith(Patch neighbour, int current_tick) {
+        this.begin("sync", "patch", this.patch_id, "neighbour", neighbour.patch_id);
+        try {
+            return neighbour.Sync(this, current_tick);
+        } finally {
+            this.end("sync");
+        }
+    }
+
+    /**
+     * Takes the snapshot this patch published for the caller, used instead of Sync if the
+     * halo exchange overlaps with the interior
+     *
+     * @param caller_patch The patch that pulls its halo
+     * @param current_tick The tick the caller patch syncs at
+     * @return The clones of the persons inside this patch and the padding of the caller patch
+     */
+    public List<Person> takeSnapshot(Patch caller_patch, int current_tick) {
+        // runs on the caller's halo executor
+        this.begin("sync", "patch", caller_patch.patch_id, "neighbour", this.patch_id);
+        CountDownLatch taken;
+        List<Person> snapshot;
+        lock.lock();
+        try {
+            // wait till this patch published the snapshots for the tick
+            final long wait_start = this.startLap();
+            while (this.snapshot_tick != current_tick)
+                wait_to_sync.await();
+            if (this.metrics != null)
+                this.metrics.addBlockingNeighbours(System.nanoTime() - wait_start);
+            taken = this.countdown_synced_patches;
+            snapshot = this.snapshots.get(caller_patch);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+        taken.countDown();
+        this.end("sync");
+        return snapshot;
+    }
+
     /**
      * @return the padding grid
      */
@@ -290,7 +724,7 @@ public class Patch extends Thread implements Context {
     @Override
     public List<Person> getPopulation() {
 
-        return this.whole_population;
+        return this.context_population;
     }
 
 
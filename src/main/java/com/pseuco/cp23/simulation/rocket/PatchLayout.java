@@ -0,0 +1,480 @@
+package com.pseuco.cp23.simulation.rocket;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+/**
+ * The patches of a scenario as the rocket splits it for a padding.
+ *
+ * <p>
+ * A layout consists of the number of ticks between syncs, the patch and padding grids,
+ * the obstacles within each padding and the neighbours each patch syncs with. The padding
+ * of each border only reaches as far as information may walk into the patch without
+ * leaving the padding, hence, a border behind a wall gets less padding or none at all. It only
+ * depends on the geometry of the scenario, the parameters bounding the propagation and
+ * the padding, but not on the population or the number of ticks. Computing the
+ * neighbours is expensive for fine partitions, hence, layouts are immutable and may be
+ * shared by any number of rockets, e.g., through a {@link Cache}.
+ * </p>
+ */
+public class PatchLayout {
+    /**
+     * A bounded cache of layouts keyed by the hash of what they depend on.
+     *
+     * <p>
+     * The least recently used layout is evicted once the capacity is exceeded. Layouts
+     * are computed outside of the cache's lock, hence, concurrent misses for the same key
+     * may compute the layout more than once.
+     * </p>
+     */
+    public static class Cache {
+        private final Map<String, PatchLayout> layouts;
+
+        private long hits = 0;
+        private long misses = 0;
+
+        /**
+         * Constructs an empty cache.
+         *
+         * @param capacity The maximal number of cached layouts.
+         */
+        public Cache(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("the capacity must be positive");
+            }
+            this.layouts = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PatchLayout> eldest) {
+                    return this.size() > capacity;
+                }
+            };
+        }
+
+        /**
+         * Returns the cached layout for the scenario and padding, computes it on a miss.
+         *
+         * @param scenario The scenario to split.
+         * @param padding  The padding of the patches.
+         * @return The layout.
+         * @throws InsufficientPaddingException If the padding is insufficient.
+         */
+        public PatchLayout get(Scenario scenario, int padding) throws InsufficientPaddingException {
+            final String key = PatchLayout.key(scenario, padding);
+            synchronized (this) {
+                final PatchLayout layout = this.layouts.get(key);
+                if (layout != null) {
+                    this.hits++;
+                    return layout;
+                }
+                this.misses++;
+            }
+            final PatchLayout layout = PatchLayout.compute(scenario, padding);
+            synchronized (this) {
+                this.layouts.put(key, layout);
+            }
+            return layout;
+        }
+
+        /**
+         * @return The number of lookups served from the cache.
+         */
+        public synchronized long getHits() {
+            return this.hits;
+        }
+
+        /**
+         * @return The number of lookups which computed the layout.
+         */
+        public synchronized long getMisses() {
+            return this.misses;
+        }
+
+        /**
+         * @return The number of cached layouts.
+         */
+        public synchronized int size() {
+            return this.layouts.size();
+        }
+    }
+
+    private final int k;
+    private final List<Rectangle> patchGrids;
+    private final List<Rectangle> paddingGrids;
+    private final List<List<Rectangle>> obstacles;
+    private final List<int[]> neighbours;
+
+    private PatchLayout(
+            int k,
+            List<Rectangle> patchGrids,
+            List<Rectangle> paddingGrids,
+            List<List<Rectangle>> obstacles,
+            List<int[]> neighbours) {
+        this.k = k;
+        this.patchGrids = patchGrids;
+        this.paddingGrids = paddingGrids;
+        this.obstacles = obstacles;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Computes the layout of the scenario for the padding.
+     *
+     * <p>
+     * The scenario is not modified.
+     * </p>
+     *
+     * @param scenario The scenario to split.
+     * @param padding  The padding of the patches.
+     * @return The layout.
+     * @throws InsufficientPaddingException If the padding is insufficient.
+     */
+    public static PatchLayout compute(Scenario scenario, int padding) throws InsufficientPaddingException {
+        final int k = CalculateK(
+                scenario.getParameters().getInfectionRadius(),
+                scenario.getParameters().getIncubationTime(),
+                padding
+        );
+
+        // add the grid edges to copies of the partition for smoother calculations
+        final List<Integer> x = new ArrayList<>(scenario.getPartition().getX());
+        final List<Integer> y = new ArrayList<>(scenario.getPartition().getY());
+        x.add(0, 0);
+        x.add(scenario.getGridSize().getX());
+        y.add(0, 0);
+        y.add(scenario.getGridSize().getY());
+
+        final List<Rectangle> patchGrids = new ArrayList<>();
+        final List<Rectangle> fullPaddingGrids = new ArrayList<>();
+        for (int i = 1; i < y.size(); i++) {
+            for (int j = 1; j < x.size(); j++) {
+                final XY topLeft = new XY(x.get(j - 1), y.get(i - 1));
+                final XY size = new XY(x.get(j) - x.get(j - 1), y.get(i) - y.get(i - 1));
+                patchGrids.add(new Rectangle(topLeft, size));
+
+                final XY paddingTopLeft = new XY(
+                        Math.max(0, topLeft.getX() - padding),
+                        Math.max(0, topLeft.getY() - padding)
+                );
+                final XY paddingBottomRight = new XY(
+                        Math.min(x.get(j) + padding, scenario.getGridSize().getX()),
+                        Math.min(y.get(i) + padding, scenario.getGridSize().getY())
+                );
+                fullPaddingGrids.add(new Rectangle(paddingTopLeft, paddingBottomRight.sub(paddingTopLeft)));
+            }
+        }
+
+        // the cells of each padding which may propagate information into the patch, the
+        // patches are independent of each other, hence, they are computed in parallel
+        final int[] steps = propagationSteps(scenario.getParameters().getInfectionRadius());
+        final List<boolean[]> reachable = IntStream.range(0, patchGrids.size()).parallel()
+                .mapToObj(id -> reachableCells(scenario, steps, patchGrids.get(id), fullPaddingGrids.get(id)))
+                .collect(Collectors.toList());
+
+        final List<Rectangle> paddingGrids = new ArrayList<>();
+        final List<List<Rectangle>> obstacles = new ArrayList<>();
+        final List<int[]> neighbours = new ArrayList<>();
+        for (int id = 0; id < patchGrids.size(); id++) {
+            final Rectangle fullPaddingGrid = fullPaddingGrids.get(id);
+            final boolean[] cells = reachable.get(id);
+            final Rectangle paddingGrid = reachableBounds(patchGrids.get(id), fullPaddingGrid, cells);
+            paddingGrids.add(paddingGrid);
+            obstacles.add(scenario.getObstacles().stream()
+                    .filter(paddingGrid::overlaps)
+                    .collect(Collectors.toUnmodifiableList()));
+            final int self = id;
+            // the patches owning a cell of the padding which may propagate information into the patch,
+            // this implies that the information may propagate from them, see Utils.mayPropagateFrom
+            neighbours.add(IntStream.range(0, patchGrids.size())
+                    .filter(other -> other != self)
+                    .filter(other -> paddingGrid.overlaps(patchGrids.get(other)))
+                    .filter(other -> anyReachable(fullPaddingGrid, cells, patchGrids.get(other)))
+                    .toArray());
+        }
+
+        return new PatchLayout(k, List.copyOf(patchGrids), List.copyOf(paddingGrids), obstacles, neighbours);
+    }
+
+    /**
+     * Computes the offsets of the cells information may propagate to within a single step,
+     * that is, the cells within the infection radius and the cells a person may move to,
+     * see Utils.mayPropagateFrom
+     *
+     * @return the offsets as pairs of x and y
+     */
+    private static int[] propagationSteps(int infectionRadius) {
+        final List<Integer> steps = new ArrayList<>();
+        final int reach = Math.max(1, infectionRadius);
+        for (int deltaX = -reach; deltaX <= reach; deltaX++) {
+            for (int deltaY = -reach; deltaY <= reach; deltaY++) {
+                if ((deltaX != 0 || deltaY != 0)
+                        && (Math.abs(deltaX) + Math.abs(deltaY) <= infectionRadius
+                        || (Math.abs(deltaX) <= 1 && Math.abs(deltaY) <= 1))) {
+                    steps.add(deltaX);
+                    steps.add(deltaY);
+                }
+            }
+        }
+        return steps.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Computes the cells of the padding grid from which information may propagate into the
+     * patch without leaving the padding grid.
+     *
+     * <p>
+     * Information entering the padding grid from outside has to cross the whole padding of
+     * a border to reach the patch, which takes more than the ticks between syncs. Hence,
+     * the cells which can't reach the patch within the padding grid never affect the patch
+     * and don't need to be simulated, e.g., the cells behind a wall along a border.
+     * </p>
+     *
+     * @return the reachable cells of the padding grid row by row
+     */
+    private static boolean[] reachableCells(Scenario scenario, int[] steps, Rectangle patchGrid, Rectangle paddingGrid) {
+        final int left = paddingGrid.getTopLeft().getX();
+        final int top = paddingGrid.getTopLeft().getY();
+        final int width = paddingGrid.getSize().getX();
+        final int height = paddingGrid.getSize().getY();
+
+        final boolean[] blocked = new boolean[width * height];
+        for (Rectangle obstacle : scenario.getObstacles()) {
+            final int fromX = Math.max(left, obstacle.getTopLeft().getX());
+            final int toX = Math.min(left + width, obstacle.getBottomRight().getX());
+            final int fromY = Math.max(top, obstacle.getTopLeft().getY());
+            final int toY = Math.min(top + height, obstacle.getBottomRight().getY());
+            for (int cellY = fromY; cellY < toY; cellY++)
+                for (int cellX = fromX; cellX < toX; cellX++)
+                    blocked[(cellY - top) * width + cellX - left] = true;
+        }
+
+        // search the padding from the free cells of the patch
+        final boolean[] reachable = new boolean[width * height];
+        final int[] frontier = new int[width * height];
+        int size = 0;
+        for (XY cell : patchGrid) {
+            final int index = (cell.getY() - top) * width + cell.getX() - left;
+            if (!blocked[index]) {
+                reachable[index] = true;
+                frontier[size++] = index;
+            }
+        }
+        for (int next = 0; next < size; next++) {
+            final int cellX = frontier[next] % width;
+            final int cellY = frontier[next] / width;
+            for (int step = 0; step < steps.length; step += 2) {
+                final int neighbourX = cellX + steps[step];
+                final int neighbourY = cellY + steps[step + 1];
+                if (neighbourX < 0 || neighbourX >= width || neighbourY < 0 || neighbourY >= height)
+                    continue;
+                final int index = neighbourY * width + neighbourX;
+                if (!reachable[index] && !blocked[index]) {
+                    reachable[index] = true;
+                    frontier[size++] = index;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return the smallest rectangle containing the patch grid and the reachable cells of the padding grid
+     */
+    private static Rectangle reachableBounds(Rectangle patchGrid, Rectangle paddingGrid, boolean[] reachable) {
+        final int left = paddingGrid.getTopLeft().getX();
+        final int top = paddingGrid.getTopLeft().getY();
+        final int width = paddingGrid.getSize().getX();
+
+        int minX = patchGrid.getTopLeft().getX();
+        int minY = patchGrid.getTopLeft().getY();
+        int maxX = patchGrid.getBottomRight().getX();
+        int maxY = patchGrid.getBottomRight().getY();
+        for (int index = 0; index < reachable.length; index++) {
+            if (reachable[index]) {
+                final int cellX = left + index % width;
+                final int cellY = top + index / width;
+                minX = Math.min(minX, cellX);
+                minY = Math.min(minY, cellY);
+                maxX = Math.max(maxX, cellX + 1);
+                maxY = Math.max(maxY, cellY + 1);
+            }
+        }
+        return new Rectangle(new XY(minX, minY), new XY(maxX - minX, maxY - minY));
+    }
+
+    /**
+     * @return whether any reachable cell of the padding grid lies within the area
+     */
+    private static boolean anyReachable(Rectangle paddingGrid, boolean[] reachable, Rectangle area) {
+        final int left = paddingGrid.getTopLeft().getX();
+        final int top = paddingGrid.getTopLeft().getY();
+        final int width = paddingGrid.getSize().getX();
+        final int fromX = Math.max(left, area.getTopLeft().getX());
+        final int toX = Math.min(paddingGrid.getBottomRight().getX(), area.getBottomRight().getX());
+        final int fromY = Math.max(top, area.getTopLeft().getY());
+        final int toY = Math.min(paddingGrid.getBottomRight().getY(), area.getBottomRight().getY());
+        for (int cellY = fromY; cellY < toY; cellY++)
+            for (int cellX = fromX; cellX < toX; cellX++)
+                if (reachable[(cellY - top) * width + cellX - left])
+                    return true;
+        return false;
+    }
+
+    /**
+     * Computes the key of the layout of the scenario for the padding.
+     *
+     * <p>
+     * The key is the SHA-256 hash of everything the layout depends on: the grid size, the
+     * partition, the obstacles, the infection radius, the incubation time and the padding.
+     * </p>
+     *
+     * @param scenario The scenario to split.
+     * @param padding  The padding of the patches.
+     * @return The key as hexadecimal string.
+     */
+    public static String key(Scenario scenario, int padding) {
+        final StringBuilder description = new StringBuilder();
+        description.append(scenario.getGridSize().getX()).append('x').append(scenario.getGridSize().getY());
+        description.append(";x=").append(scenario.getPartition().getX());
+        description.append(";y=").append(scenario.getPartition().getY());
+        description.append(";obstacles=");
+        for (Rectangle obstacle : scenario.getObstacles()) {
+            description.append(obstacle.getTopLeft().getX()).append(',').append(obstacle.getTopLeft().getY())
+                    .append(',').append(obstacle.getSize().getX()).append(',').append(obstacle.getSize().getY())
+                    .append(' ');
+        }
+        description.append(";radius=").append(scenario.getParameters().getInfectionRadius());
+        description.append(";incubation=").append(scenario.getParameters().getIncubationTime());
+        description.append(";padding=").append(padding);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(description.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException error) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(error);
+        }
+    }
+
+    /**
+     * @return The number of ticks between syncs, a border with less padding is one no information crosses, hence,
+     *         it doesn't bound the ticks between syncs.
+     */
+    public int getK() {
+        return this.k;
+    }
+
+    /**
+     * @return The number of patches.
+     */
+    public int size() {
+        return this.patchGrids.size();
+    }
+
+    /**
+     * @param id The id of the patch.
+     * @return The area owned by the patch.
+     */
+    public Rectangle getPatchGrid(int id) {
+        return this.patchGrids.get(id);
+    }
+
+    /**
+     * @param id The id of the patch.
+     * @return The area simulated by the patch including its padding, the padding may differ per border.
+     */
+    public Rectangle getPaddingGrid(int id) {
+        return this.paddingGrids.get(id);
+    }
+
+    /**
+     * @param id The id of the patch.
+     * @return The obstacles overlapping with the padding grid of the patch.
+     */
+    public List<Rectangle> getObstacles(int id) {
+        return this.obstacles.get(id);
+    }
+
+    /**
+     * @param id The id of the patch.
+     * @return The ids of the patches the patch syncs with.
+     */
+    public int[] getNeighbours(int id) {
+        return this.neighbours.get(id).clone();
+    }
+
+    private static int CalculateK(int infectionRadius, int incubationTime, int padding) throws InsufficientPaddingException {
+
+        int overall_uncertainty = 0,
+                movement_uncertainty = 0,
+                k = 0,
+                initial_incubation_ticks = 1 + incubationTime;
+
+        // in this list we will keep the list of persons who are at the end of our uncertain boundaries
+        // at each tick, and their behaviour will only be relevant after incubation time ticks as their
+        // infectious uncertainty might spread faster than the movement based uncertainty, so this list will
+        // once it reaches the first incubation tick, it will keep a size of incubation time
+        List<Integer> infectious_uncertain_boundaries = new ArrayList<>();
+
+        // keep increasing k as far as our uncertainty is less than the padding
+        while (overall_uncertainty < padding) {
+
+            //add the movement uncertainty for each tick
+            movement_uncertainty += 2;
+
+            // add 1 to all the persons who were on our infectious uncertainty list
+            // as they might have moved 1 column toward our patch each tick
+            infectious_uncertain_boundaries.replaceAll(value -> value + 1);
+
+            // check if the first incubation tick is reached
+            initial_incubation_ticks--;
+
+            if (initial_incubation_ticks > 0)
+                // if the incubation time for the first uncertain infectious person
+                // is not yet reached then it is not relevant yet and the movement
+                // uncertainty will be faster and will overtake it for now
+                overall_uncertainty = movement_uncertainty + infectionRadius;
+            else {
+                // if the incubation time ticks have passed then we check
+                // for the position of hte first person in our infectious
+                // uncertain list and add infection radius to it then we take the
+                // maximum value between that and the movement based uncertainty
+                // as our overall uncertainty
+
+                overall_uncertainty = Math.max(
+                        movement_uncertainty + infectionRadius,
+                        infectious_uncertain_boundaries.get(0) + infectionRadius);
+                // remove the first person on the list such that he is not relevant anymore
+                // and the 2nd person effect will overtake his effect in the next tick
+                // such that the list will maintain a size equal to incubation time
+                // at any point after reaching this condition
+                infectious_uncertain_boundaries.remove(0);
+            }
+
+            // add the current person on our uncertain borders to the uncertain infectious people
+            infectious_uncertain_boundaries.add(overall_uncertainty);
+
+            if (overall_uncertainty <= padding)
+                k++;
+
+        }
+
+        // check the uncertain area for the first step and throw exception if it is not enough
+        if (k == 0)
+            throw new InsufficientPaddingException(padding);
+
+
+        return k;
+    }
+}
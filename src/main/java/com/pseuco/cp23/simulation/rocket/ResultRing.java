@@ -0,0 +1,89 @@
+package com.pseuco.cp23.simulation.rocket;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring passing the results of a single patch to the aggregating thread,
+ * the patch blocks once it is a full window of ticks ahead of the aggregation
+ */
+class ResultRing {
+
+    private final Pair[] slots;
+
+    // the number of results put and taken so far, each only written by one side, the
+    // volatile writes order them before reading the thread to unpark, so no wakeup is lost
+    private final AtomicLong put_count = new AtomicLong();
+    private final AtomicLong take_count = new AtomicLong();
+
+    private volatile Thread producer = null;
+    private volatile Thread consumer = null;
+    private volatile boolean closed = false;
+
+    /**
+     * @param capacity the number of results in flight, at least one
+     */
+    ResultRing(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("the ring must hold at least one result");
+        this.slots = new Pair[capacity];
+    }
+
+    /**
+     * Waits till there is room in the ring and puts the result, only called by the patch
+     */
+    void put(Pair result) throws InterruptedException {
+        long put = put_count.getPlain();
+        if (put - take_count.get() == slots.length) {
+            producer = Thread.currentThread();
+            // the consumer unparks after every take, hence, check again before parking
+            while (!closed && put - take_count.get() == slots.length) {
+                LockSupport.park(this);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        }
+        // nobody takes from a closed ring anymore
+        if (closed)
+            return;
+        slots[(int) (put % slots.length)] = result;
+        put_count.set(put + 1);
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * Waits for the next result and takes it, only called by the aggregating thread
+     */
+    Pair take() throws InterruptedException {
+        long take = take_count.getPlain();
+        if (put_count.get() == take) {
+            consumer = Thread.currentThread();
+            while (put_count.get() == take) {
+                LockSupport.park(this);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        }
+        int slot = (int) (take % slots.length);
+        Pair result = slots[slot];
+        slots[slot] = null;
+        take_count.set(take + 1);
+        LockSupport.unpark(producer);
+        return result;
+    }
+
+    /**
+     * @return the number of results waiting in the ring
+     */
+    int size() {
+        return (int) (put_count.get() - take_count.get());
+    }
+
+    /**
+     * Drops all further results and releases a blocked producer, e.g., once no further ticks are wanted
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(producer);
+    }
+}
@@ -1,15 +1,20 @@
 package com.pseuco.cp23.simulation.rocket;
 
+import com.pseuco.cp23.metrics.LiveMetrics;
+import com.pseuco.cp23.metrics.RocketMetrics;
+import com.pseuco.cp23.metrics.TimelineRecorder;
 import com.pseuco.cp23.model.Output;
 import com.pseuco.cp23.model.PersonInfo;
 import com.pseuco.cp23.model.Query;
 import com.pseuco.cp23.model.Rectangle;
 import com.pseuco.cp23.model.Scenario;
 import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TickResult;
 import com.pseuco.cp23.model.TraceEntry;
-import com.pseuco.cp23.model.XY;
 import com.pseuco.cp23.simulation.common.Person;
+import com.pseuco.cp23.simulation.common.RngLookahead;
 import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.common.TickPublisher;
 import com.pseuco.cp23.validator.InsufficientPaddingException;
 import com.pseuco.cp23.validator.Validator;
 
@@ -17,9 +22,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 /**
  * Your implementation shall go into this class.
@@ -29,12 +35,26 @@ import java.util.stream.Collectors;
  * </p>
  */
 public class Rocket implements Simulation {
+    /**
+     * The default number of ticks each patch may have in flight to the main thread.
+     */
+    public static final int DEFAULT_RESULT_WINDOW = 32;
+
     List<Patch> patches;
+    int k;
 
-    List<List<Person>> lists_of_people_per_tick;
+    // with compact results, the names and bounds (left, top, right, bottom) of the queries
+    boolean compact_results = false;
+    List<String> query_names;
+    int[] query_bounds;
     Scenario scenario;
 
-    BlockingQueue<Pair> results_queue;
+    // one ring per patch, the main thread takes every tick from each of them in turn
+    List<ResultRing> result_rings = List.of();
+    int result_window = DEFAULT_RESULT_WINDOW;
+
+    // with a trace, the patches write the infos of their persons into the slots of their ids
+    TraceSlots trace_slots = null;
 
     List<TraceEntry> traceEntries;
     Map<String, List<Statistics>> statistics;
@@ -42,6 +62,19 @@ public class Rocket implements Simulation {
 
     int population_count;
 
+    RocketMetrics metrics = null;
+    LiveMetrics live = null;
+
+    Consumer<TraceEntry> trace_listener = null;
+
+    TickPublisher results = null;
+    TickGate gate = null;
+
+    RngLookahead rng_lookahead = null;
+
+    boolean overlap = false;
+    boolean virtual_threads = false;
+
     /**
      * Constructs a rocket with the given parameters.
      *
@@ -61,12 +94,24 @@ public class Rocket implements Simulation {
      * @param validator The validator to be called.
      */
     public Rocket(Scenario scenario, int padding, Validator validator) throws InsufficientPaddingException {
+        this(scenario, PatchLayout.compute(scenario, padding), validator);
+    }
 
-        this.scenario = scenario;
+    /**
+     * Constructs a rocket reusing a layout of the scenario's patches.
+     *
+     * <p>
+     * The layout must have been computed for a scenario with the same geometry and
+     * parameters, e.g., looked up by a {@link PatchLayout.Cache}.
+     * </p>
+     *
+     * @param scenario  The scenario to simulate.
+     * @param layout    The layout of the patches.
+     * @param validator The validator to be called.
+     */
+    public Rocket(Scenario scenario, PatchLayout layout, Validator validator) {
 
-        // this queue keeps receiving relevant data from other threads
-        // to calculate the traces and statistics
-        this.results_queue = new LinkedBlockingQueue<>();
+        this.scenario = scenario;
 
         this.traceEntries = new ArrayList<>();
         this.statistics = new HashMap<>();
@@ -76,14 +121,182 @@ public class Rocket implements Simulation {
         }
 
 
-        int k = CalculateK(scenario.getParameters().getInfectionRadius(), scenario.getParameters().getIncubationTime(), padding);
-        patches = generatePatches(scenario, padding, k, validator);
+        k = layout.getK();
+        patches = generatePatches(scenario, layout, validator);
+
+    }
+
+    /**
+     * Enables recording runtime metrics of the patches and the aggregation.
+     *
+     * <p>
+     * Must be called before the rocket is launched.
+     * </p>
+     *
+     * @return The metrics which are complete once the run has finished.
+     */
+    public RocketMetrics enableMetrics() {
+        this.metrics = new RocketMetrics(patches.size());
+        for (int id = 0; id < patches.size(); id++) {
+            patches.get(id).setMetrics(metrics.getPatch(id));
+        }
+        return this.metrics;
+    }
+
+    /**
+     * Enables publishing the progress of the run while it is running.
+     *
+     * <p>
+     * The patches publish the tick they simulate and the time they wait in syncs, the
+     * aggregating thread publishes the completed ticks and the totals of the population
+     * by infection state. Must be called before the rocket is launched.
+     * </p>
+     *
+     * @return The counters which may be read at any time, e.g., by a metrics server.
+     */
+    public LiveMetrics enableLiveMetrics() {
+        this.live = new LiveMetrics(patches.size(), scenario.getTicks(), this::resultBacklog);
+        for (Patch patch : patches)
+            patch.setLiveMetrics(live);
+        return this.live;
+    }
+
+    /**
+     * Bounds the number of ticks each patch may have in flight to the main thread.
+     *
+     * <p>
+     * Every patch hands its results to the main thread through a ring of its own and
+     * blocks once the ring is full, hence, no patch runs more than the window ahead of
+     * the aggregation and only the rings are kept in memory. Must be called before the
+     * rocket is launched.
+     * </p>
+     *
+     * @param ticks The number of ticks, at least one.
+     */
+    public void setResultWindow(int ticks) {
+        if (ticks < 1)
+            throw new IllegalArgumentException("the result window must be at least one tick");
+        this.result_window = ticks;
+    }
+
+    /**
+     * Enables recording a timeline of the ticks and syncs of all patches.
+     *
+     * <p>
+     * Must be called before the rocket is launched.
+     * </p>
+     *
+     * @return The recorder which may be exported once the run has finished.
+     */
+    public TimelineRecorder enableTimeline() {
+        final TimelineRecorder timeline = new TimelineRecorder();
+        for (Patch patch : patches) {
+            patch.setTimeline(timeline);
+        }
+        return timeline;
+    }
+
+    /**
+     * Overlaps the halo exchange with the interior of the patches.
+     *
+     * <p>
+     * At every sync a patch publishes clones of its persons for the neighbours and moves
+     * the persons which are too far from the border to be affected by the halo while the
+     * halo is pulled in the background. The output is the same as without the overlap.
+     * Must be called before the rocket is launched.
+     * </p>
+     */
+    public void enableOverlap() {
+        this.overlap = true;
+    }
+
+    /**
+     * Runs the patches as virtual threads instead of platform threads.
+     *
+     * <p>
+     * The patches only block on locks, latches and queues of <em>java.util.concurrent</em>,
+     * which unmount a virtual thread instead of pinning its carrier. Hence, partitions
+     * with thousands of patches don't need thousands of OS threads. Must be called before
+     * the rocket is launched.
+     * </p>
+     */
+    public void enableVirtualThreads() {
+        this.virtual_threads = true;
+    }
+
+    /**
+     * Computes the random numbers of the persons ahead of the patches on extra threads.
+     *
+     * <p>
+     * The patches read the digests of their persons and of the persons in their paddings
+     * from the lookahead instead of hashing them, each digest is hashed once for all
+     * patches. The output is the same as without the lookahead. Must be called before the
+     * rocket is launched.
+     * </p>
+     *
+     * @param threads The number of producer threads.
+     * @param window  The number of digests buffered per person.
+     */
+    public void enableRngLookahead(int threads, int window) {
+        this.rng_lookahead = new RngLookahead(scenario.getPopulation(), window, threads);
+        for (Patch patch : patches)
+            patch.setRngLookahead(rng_lookahead);
+    }
+
+    /**
+     * Lets the patches send only the id, position and state of their persons instead of
+     * clones of them.
+     *
+     * <p>
+     * Without a trace, the statistics are all the rocket outputs. They are counted from
+     * the packed persons as they arrive, hence, neither the patches clone their persons
+     * every tick nor does the main thread keep them until a tick is complete. Must be
+     * called before the rocket is launched and only if the scenario is not traced.
+     * </p>
+     */
+    public void enableCompactResults() {
+        if (scenario.getTrace())
+            throw new IllegalStateException("compact results don't include the trace");
+        if (results != null && results.includesTrace())
+            throw new IllegalStateException("the published results include the trace");
+
+        countCompactResults();
+    }
 
-        lists_of_people_per_tick = new ArrayList<>();
-        for (int i = 0; i <= scenario.getTicks(); i++) {
-            lists_of_people_per_tick.add(new ArrayList<>());
+    /**
+     * Counts the statistics from the id, position and state of the persons sent by the patches
+     */
+    private void countCompactResults() {
+        query_names = new ArrayList<>(scenario.getQueries().keySet());
+        query_bounds = new int[4 * query_names.size()];
+        for (int query = 0; query < query_names.size(); query++) {
+            Rectangle area = scenario.getQueries().get(query_names.get(query)).getArea();
+            query_bounds[4 * query] = area.getTopLeft().getX();
+            query_bounds[4 * query + 1] = area.getTopLeft().getY();
+            query_bounds[4 * query + 2] = area.getBottomRight().getX();
+            query_bounds[4 * query + 3] = area.getBottomRight().getY();
         }
+        compact_results = true;
+        for (Patch patch : patches)
+            patch.enableCompactResults();
+    }
+
+    @Override
+    public boolean setTraceListener(Consumer<TraceEntry> listener) {
+        this.trace_listener = listener;
+        return true;
+    }
 
+    @Override
+    public Flow.Publisher<TickResult> publishResults(boolean trace) {
+        if (trace && compact_results)
+            throw new IllegalStateException("compact results don't include the trace");
+        this.results = new TickPublisher(trace);
+        // the patches run at most a couple of syncs ahead of the subscriber
+        this.gate = new TickGate(Math.max(2 * k, 16), k);
+        for (Patch patch : patches)
+            patch.setGate(gate);
+        return this.results;
     }
 
     @Override
@@ -95,72 +308,205 @@ public class Rocket implements Simulation {
 
     @Override
     public void run() {
+        List<ResultRing> rings = new ArrayList<>();
         for (Patch patch : patches) {
-            patch.start();
+            ResultRing ring = new ResultRing(result_window);
+            patch.setResults(ring);
+            rings.add(ring);
+        }
+        result_rings = rings;
+
+        // the patches assemble the trace in the slots of the persons' ids, hence,
+        // the main thread only needs their positions and states for the statistics
+        if (scenario.getTrace() || (results != null && results.includesTrace())) {
+            // a patch writes a tick before putting it, at most a full ring ahead of the
+            // tick the main thread is aggregating
+            trace_slots = new TraceSlots(population_count, result_window + 2);
+            if (!compact_results)
+                countCompactResults();
+            for (Patch patch : patches)
+                patch.setTraceSlots(trace_slots);
         }
 
+        ExecutorService halo_executor = null;
+        if (overlap) {
+            halo_executor = virtual_threads
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newCachedThreadPool(Thread.ofPlatform().name("halo-exchange").daemon().factory());
+            for (Patch patch : patches)
+                patch.enableOverlap(halo_executor);
+        }
+
+        if (rng_lookahead != null)
+            rng_lookahead.start();
+
+        Thread.Builder builder = virtual_threads ? Thread.ofVirtual() : Thread.ofPlatform();
+        List<Thread> threads = new ArrayList<>();
+        for (int id = 0; id < patches.size(); id++)
+            threads.add(builder.name("patch-" + id).start(patches.get(id)));
+
         try {
             handleStatistics();
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
 
-        for (Patch patch : patches) {
+        for (Thread thread : threads) {
             try {
-                patch.join();
+                thread.join();
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
         }
+
+        if (halo_executor != null)
+            halo_executor.shutdown();
+        if (rng_lookahead != null)
+            rng_lookahead.stop();
+        if (results != null)
+            results.complete();
     }
 
     /**
      * In this method this thread will keep on consuming the data sent by the
-     * patch threads, it will receive Pairs from other threads that contains
-     * a tick and a list of people at that tick from a specific patch
-     * and then add the people from that tick to the whole grid population
-     * at that tick in this thread, once all threads have sent the
-     * people info at the tick that is being calculated then the statistics is
-     * created, and we proceed to the next tick
+     * patch threads, for every tick it takes the Pair of each patch from its ring,
+     * a Pair contains the tick and the people of the patch at that tick, once all
+     * patches have sent their people at the tick the statistics is created, the trace
+     * entry is taken from the slots the patches have written, and we proceed to the
+     * next tick
      */
 
     private void handleStatistics() throws InterruptedException {
-        int current_tick = 0;
-
-        // keep receiving data pairs from other threads
-        while (current_tick <= scenario.getTicks()) {
-            Pair people_per_tick = results_queue.take();
-            int tick = people_per_tick.tick();
-
-            // add all the people we just received to the list of the whole population at that tick
-            lists_of_people_per_tick.get(tick).addAll(people_per_tick.list_of_people());
-
-            // if the size of the list of people at the current tick we are processing
-            // is equal to the whole population number meaning that all threads have
-            // sent their persons info for that tick then extend output and proceed to next tick
+        for (int current_tick = 0; current_tick <= scenario.getTicks(); current_tick++) {
+
+            // the patches send their ticks in order, hence, the next result
+            // of every ring belongs to the current tick, compact results
+            // are counted right away instead
+            List<List<Person>> lists = new ArrayList<>(patches.size());
+            long[] counts = compact_results ? new long[4 * (query_names.size() + 1)] : null;
+            int people_count = 0;
+            for (ResultRing ring : result_rings) {
+                Pair received = ring.take();
+                if (metrics != null)
+                    metrics.recordBacklog(resultBacklog());
+                if (received.tick() != current_tick)
+                    throw new IllegalStateException("received tick " + received.tick() + " while aggregating tick " + current_tick);
+                if (received.compact_people() != null)
+                    countCompact(counts, received.compact_people());
+                else
+                    lists.add(received.list_of_people());
+                people_count += received.size();
+            }
+            if (people_count != population_count)
+                throw new IllegalStateException("the patches sent " + people_count + " people instead of " + population_count);
+
+            // the statistics don't depend on the order of the people, the trace
+            // entry is complete since every patch writes its slots before the put
+            final TraceEntry entry = trace_slots != null ? trace_slots.release(current_tick) : null;
+            extendTrace(entry);
+            if (compact_results) {
+                extendStatistics(counts);
+                if (live != null)
+                    publishTotals(counts, current_tick + 1);
+            } else {
+                List<Person> people = new ArrayList<>(population_count);
+                lists.forEach(people::addAll);
+                extendStatistics(people);
+                if (live != null)
+                    publishTotals(people, current_tick + 1);
+            }
 
-            if (lists_of_people_per_tick.get(current_tick).size() == population_count) {
+            // hand the tick to the subscriber, if it doesn't want any further
+            // ticks stop the patches and forget about the ones still coming in
+            if (results != null) {
+                if (!results.publish(current_tick, statistics, () -> entry)) {
+                    gate.stop();
+                    if (trace_slots != null)
+                        trace_slots.close();
+                    result_rings.forEach(ResultRing::close);
+                    return;
+                }
+                gate.handedOut(current_tick + 1);
+            }
+        }
 
-                lists_of_people_per_tick.get(current_tick).sort(new Person.PersonIDComparator());
+    }
 
-                extendOutput(lists_of_people_per_tick.get(current_tick));
-                lists_of_people_per_tick.get(current_tick).clear();
-                current_tick++;
-            }
+    /**
+     * @return the number of results waiting in the rings of all patches
+     */
+    private int resultBacklog() {
+        int backlog = 0;
+        for (ResultRing ring : result_rings)
+            backlog += ring.size();
+        return backlog;
+    }
 
+    /**
+     * Adds the trace entry to the output if the scenario is traced
+     */
+    private void extendTrace(TraceEntry entry) {
+
+        if (scenario.getTrace()) {
+            // hand the entry to the writer right away instead of keeping all ticks in memory
+            if (trace_listener != null)
+                trace_listener.accept(entry);
+            else
+                this.traceEntries.add(entry);
         }
 
     }
 
-    private void extendOutput(List<Person> people) {
+    /**
+     * Counts the whole population by infection state for the live metrics
+     */
+    private void publishTotals(List<Person> people, int completed_ticks) {
+        long susceptible = 0, infected = 0, infectious = 0, recovered = 0;
+        for (Person person : people) {
+            if (person.isSusceptible())
+                susceptible++;
+            else if (person.isInfected())
+                infected++;
+            else if (person.isInfectious())
+                infectious++;
+            else if (person.isRecovered())
+                recovered++;
+        }
+        live.completeTick(completed_ticks, susceptible, infected, infectious, recovered);
+    }
 
-        if (scenario.getTrace())
-            this.traceEntries.add(new TraceEntry(people.stream()
-                    .map(Person::getInfo)
-                    .collect(Collectors.toList())));
+    /**
+     * Publishes the totals counted from compact results for the live metrics
+     */
+    private void publishTotals(long[] counts, int completed_ticks) {
+        int totals = 4 * query_names.size();
+        live.completeTick(completed_ticks, counts[totals], counts[totals + 1], counts[totals + 2], counts[totals + 3]);
+    }
 
-        this.extendStatistics(people);
+    /**
+     * Counts the persons packed by a patch per query and state, followed by the totals per state, see Pair
+     */
+    private void countCompact(long[] counts, int[] people) {
+        int totals = 4 * query_names.size();
+        for (int offset = 0; offset < people.length; offset += Pair.COMPACT_STRIDE) {
+            int x = people[offset + 1];
+            int y = people[offset + 2];
+            int state = people[offset + 3];
+            counts[totals + state]++;
+            for (int query = 0; query < query_names.size(); query++) {
+                int bounds = 4 * query;
+                if (query_bounds[bounds] <= x && x < query_bounds[bounds + 2]
+                        && query_bounds[bounds + 1] <= y && y < query_bounds[bounds + 3])
+                    counts[bounds + state]++;
+            }
+        }
+    }
 
+    private void extendStatistics(long[] counts) {
+        for (int query = 0; query < query_names.size(); query++)
+            statistics.get(query_names.get(query)).add(new Statistics(
+                    counts[4 * query], counts[4 * query + 1], counts[4 * query + 2], counts[4 * query + 3]
+            ));
     }
 
     private void extendStatistics(List<Person> people) {
@@ -193,51 +539,24 @@ public class Rocket implements Simulation {
     /**
      * This method generates the threads we will run concurrently
      **/
-    private List<Patch> generatePatches(Scenario scenario, int padding, int k, Validator validator) {
-        List<Integer> x = scenario.getPartition().getX();
-        List<Integer> y = scenario.getPartition().getY();
-
-        //add the gird edges to the partition lists for smoother calculations
-        x.add(0, 0);
-        x.add(scenario.getGridSize().getX());
-        y.add(0, 0);
-        y.add(scenario.getGridSize().getY());
+    private List<Patch> generatePatches(Scenario scenario, PatchLayout layout, Validator validator) {
 
-        int id = 0;
+        //create the patch objects, their result rings are set up when the rocket is launched
         List<Patch> patches = new ArrayList<>();
+        for (int id = 0; id < layout.size(); id++)
+            patches.add(new Patch(id, validator, layout.getPatchGrid(id), layout.getPaddingGrid(id), layout.getK(), scenario.getTicks(), scenario.getParameters().getInfectionRadius()));
 
-        // go through two loops to create all patches from the x and y partitions
-        for (int i = 1; i < y.size(); i++) {
-            for (int j = 1; j < x.size(); j++) {
-
-                // calculate the patch grid rectangle
-                final XY top_left = new XY(x.get(j - 1), y.get(i - 1));
-                final XY patch_size = new XY(x.get(j) - x.get(j - 1), y.get(i) - y.get(i - 1));
-                final Rectangle patch_grid = new Rectangle(top_left, patch_size);
-
-                // calculate the padding grid rectangle
-                // calculate the padding top left corner
-                final XY padding_top_left = new XY(Math.max(0, top_left.getX() - padding),
-                        Math.max(0, top_left.getY() - padding));
-
-                // calculate the padding bottom right corner
-                final XY padding_bottom_right = new XY(Math.min(x.get(j) + padding, scenario.getGridSize().getX()),
-                        Math.min(y.get(i) + padding, scenario.getGridSize().getY()));
-
-                // calculate the padding size and create the rectangle for the padding grid
-                final XY padding_size = padding_bottom_right.sub(padding_top_left);
-                final Rectangle padding_grid = new Rectangle(padding_top_left, padding_size);
-
-                //create the patch objects and give it the results queue to send back relevant data for statistics
-                patches.add(new Patch(id, this.results_queue, validator, patch_grid, padding_grid, k, scenario.getTicks(), scenario.getParameters().getInfectionRadius()));
-                id++;
-            }
-        }
         // add to each patch their neighbours and relevant obstacles
-        for (Patch patch : patches) {
-            patch.addNeighbours(patches, scenario);
-            patch.addObstacles(scenario.getObstacles());
+        for (int id = 0; id < layout.size(); id++) {
+            List<Patch> neighbours = new ArrayList<>();
+            for (int neighbour : layout.getNeighbours(id))
+                neighbours.add(patches.get(neighbour));
+            patches.get(id).setNeighbours(neighbours);
+            patches.get(id).setObstacles(layout.getObstacles(id));
         }
+        // the paddings differ per border, hence, a patch may be pulled from by other patches than it pulls from
+        for (Patch patch : patches)
+            patch.findPullers(patches);
 
         // populate each patch with relevant persons inside it
         Populate(scenario, patches);
@@ -265,69 +584,6 @@ public class Rocket implements Simulation {
 
     }
 
-    private int CalculateK(int infectionRadius, int incubationTime, int padding) throws InsufficientPaddingException {
-
-        int overall_uncertainty = 0,
-                movement_uncertainty = 0,
-                k = 0,
-                initial_incubation_ticks = 1 + incubationTime;
-
-        // in this list we will keep the list of persons who are at the end of our uncertain boundaries
-        // at each tick, and their behaviour will only be relevant after incubation time ticks as their
-        // infectious uncertainty might spread faster than the movement based uncertainty, so this list will
-        // once it reaches the first incubation tick, it will keep a size of incubation time
-        List<Integer> infectious_uncertain_boundaries = new ArrayList<>();
-
-        // keep increasing k as far as our uncertainty is less than the padding
-        while (overall_uncertainty < padding) {
-
-            //add the movement uncertainty for each tick
-            movement_uncertainty += 2;
-
-            // add 1 to all the persons who were on our infectious uncertainty list
-            // as they might have moved 1 column toward our patch each tick
-            infectious_uncertain_boundaries.replaceAll(value -> value + 1);
-
-            // check if the first incubation tick is reached
-            initial_incubation_ticks--;
-
-            if (initial_incubation_ticks > 0)
-                // if the incubation time for the first uncertain infectious person
-                // is not yet reached then it is not relevant yet and the movement
-                // uncertainty will be faster and will overtake it for now
-                overall_uncertainty = movement_uncertainty + infectionRadius;
-            else {
-                // if the incubation time ticks have passed then we check
-                // for the position of hte first person in our infectious
-                // uncertain list and add infection radius to it then we take the
-                // maximum value between that and the movement based uncertainty
-                // as our overall uncertainty
-
-                overall_uncertainty = Math.max(
-                        movement_uncertainty + infectionRadius,
-                        infectious_uncertain_boundaries.get(0) + infectionRadius);
-                // remove the first person on the list such that he is not relevant anymore
-                // and the 2nd person effect will overtake his effect in the next tick
-                // such that the list will maintain a size equal to incubation time
-                // at any point after reaching this condition
-                infectious_uncertain_boundaries.remove(0);
-            }
-
-            // add the current person on our uncertain borders to the uncertain infectious people
-            infectious_uncertain_boundaries.add(overall_uncertainty);
-
-            if (overall_uncertainty <= padding)
-                k++;
-
-        }
-
-        // check the uncertain area for the first step and throw exception if it is not enough
-        if (k == 0)
-            throw new InsufficientPaddingException(padding);
-
-
-        return k;
-    }
 
 
 
@@ -1,17 +1,66 @@
 package com.pseuco.cp23.simulation.rocket;
 
 import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Query;
+import com.pseuco.cp23.model.Rectangle;
 import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TraceEntry;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.simulation.common.Person;
 import com.pseuco.cp23.simulation.common.Simulation;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
 /**
- * The implementation of assignment 2 should go here.
+ * An optimistic implementation of assignment 2 following Time Warp.
+ *
+ * <p>
+ * Unlike the rocket, the patches never wait for each other. Each patch simulates its
+ * padding itself, i.e., guesses what its neighbours do, and sends the persons it owns
+ * inside the paddings of the other patches as events stamped with their tick. Once an
+ * event shows that a step of the patch depended on a wrong guess, e.g., a source of the
+ * infection the patch didn't know about, the patch rolls back to the state it saved at
+ * that tick and simulates the following ticks again. Events which only differ from the
+ * guess where no step of the patch looked are taken over without a rollback.
+ * </p>
  *
  * <p>
- * This class has to implement the <em>Simulation</em> interface.
+ * The global virtual time (gvt) is the earliest tick any patch may still roll back to.
+ * It is computed from a consistent cut taken while holding the locks of all patches, the
+ * ticks up to it are final and form the output. The patches drop their saved states and
+ * events below the gvt and run at most a window of ticks ahead of it, hence, the memory
+ * is bounded by the window instead of the number of ticks.
  * </p>
  */
 public class Starship implements Simulation {
+    /**
+     * The default number of ticks a patch may run ahead of the gvt.
+     */
+    public static final int DEFAULT_WINDOW = 32;
+
+    // how often the gvt is computed while no patch asks for it
+    private static final long GVT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Scenario scenario;
+    private final int padding;
+    private int window = DEFAULT_WINDOW;
+
+    private final List<TraceEntry> trace = new ArrayList<>();
+    private final Map<String, List<Statistics>> statistics = new HashMap<>();
+
+    private List<WarpPatch> patches;
+    private volatile Thread coordinator;
+    private volatile Throwable failure = null;
+
     /**
      * Constructs a starship with the given parameters.
      *
@@ -20,21 +69,195 @@ public class Starship implements Simulation {
      * </p>
      *
      * @param scenario The scenario to simulate.
-     * @param padding  Optional padding.
+     * @param padding  Optional padding, raised to the reach of a single tick if smaller.
      */
     public Starship(Scenario scenario, int padding) {
-        // your concurrent implementation of assignment 2 goes here
-        // you may ignore the `padding` parameter.
-        throw new RuntimeException("not implemented");
+        this.scenario = scenario;
+        // a step only looks as far as a move or the infection radius
+        this.padding = Math.max(padding, Math.max(WarpPatch.MOVEMENT_REACH, scenario.getParameters().getInfectionRadius()));
+        for (String query : scenario.getQueries().keySet())
+            statistics.put(query, new ArrayList<>());
+    }
+
+    /**
+     * Bounds how far the patches may run ahead of the gvt, must be called before the starship is launched
+     *
+     * @param window The number of ticks, at least one.
+     */
+    public void setWindow(int window) {
+        if (window < 1)
+            throw new IllegalArgumentException("the window must be at least one tick");
+        this.window = window;
+    }
+
+    /**
+     * @return The number of rollbacks of all patches, complete once the run has finished.
+     */
+    public long getRollbacks() {
+        return patches == null ? 0 : patches.stream().mapToLong(WarpPatch::getRollbacks).sum();
+    }
+
+    /**
+     * @return The number of ticks simulated again after rollbacks, complete once the run has finished.
+     */
+    public long getRolledBackTicks() {
+        return patches == null ? 0 : patches.stream().mapToLong(WarpPatch::getRolledBackTicks).sum();
     }
 
     @Override
     public Output getOutput() {
-        throw new RuntimeException("not implemented");
+        return new Output(scenario, trace, statistics);
     }
 
     @Override
     public void run() {
-        throw new RuntimeException("not implemented");
+        coordinator = Thread.currentThread();
+        patches = generatePatches();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int id = 0; id < patches.size(); id++) {
+            WarpPatch patch = patches.get(id);
+            Thread thread = Thread.ofPlatform().name("warp-patch-" + id).unstarted(() -> {
+                try {
+                    patch.run();
+                } catch (Throwable error) {
+                    failure = error;
+                    wakeUp();
+                }
+            });
+            patch.setThread(thread);
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+
+        try {
+            coordinate();
+        } finally {
+            // the patches park till a new gvt is committed, which never happens once the coordinator
+            // stopped, hence, stop them, they have nothing left to do after a successful run anyway
+            patches.forEach(WarpPatch::stop);
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Commits the gvt till all ticks are final, runs on the thread of the starship
+     */
+    private void coordinate() {
+        int committed = -1;
+        while (committed < scenario.getTicks()) {
+            LockSupport.parkNanos(this, GVT_INTERVAL);
+            if (failure != null)
+                throw new RuntimeException("a patch failed", failure);
+
+            // the persons of each patch at the ticks which became final
+            List<List<List<Person>>> committed_ticks = new ArrayList<>();
+            int gvt = Integer.MAX_VALUE;
+            patches.forEach(patch -> patch.lock.lock());
+            try {
+                for (WarpPatch patch : patches)
+                    gvt = Math.min(gvt, patch.floor());
+                if (gvt > committed)
+                    for (WarpPatch patch : patches)
+                        committed_ticks.add(patch.commit(gvt));
+            } finally {
+                patches.forEach(patch -> patch.lock.unlock());
+            }
+
+            for (int tick = committed + 1; tick <= gvt; tick++) {
+                List<List<Person>> owned = new ArrayList<>();
+                for (List<List<Person>> patch_ticks : committed_ticks)
+                    owned.add(patch_ticks.get(tick - committed - 1));
+                List<Person> people = new ArrayList<>();
+                Patch.mergeById(owned, people);
+                extendOutput(people);
+            }
+            committed = Math.max(committed, gvt);
+        }
+    }
+
+    /**
+     * Lets the coordinator compute the gvt right away, e.g., because a patch ran out of work
+     */
+    void wakeUp() {
+        LockSupport.unpark(coordinator);
+    }
+
+    private void extendOutput(List<Person> people) {
+        if (people.size() != scenario.getPopulation().size())
+            throw new IllegalStateException("the patches own " + people.size() + " persons instead of " + scenario.getPopulation().size());
+
+        if (scenario.getTrace())
+            trace.add(new TraceEntry(people.stream().map(Person::getInfo).collect(Collectors.toList())));
+
+        for (Map.Entry<String, Query> entry : scenario.getQueries().entrySet()) {
+            Rectangle area = entry.getValue().getArea();
+            long susceptible = 0, infected = 0, infectious = 0, recovered = 0;
+            for (Person person : people) {
+                if (!area.contains(person.getPosition()))
+                    continue;
+                if (person.isSusceptible())
+                    susceptible++;
+                else if (person.isInfected())
+                    infected++;
+                else if (person.isInfectious())
+                    infectious++;
+                else if (person.isRecovered())
+                    recovered++;
+            }
+            statistics.get(entry.getKey()).add(new Statistics(susceptible, infected, infectious, recovered));
+        }
+    }
+
+    /**
+     * Creates a patch per rectangle of the partition, the padding is grown by the padding around it
+     */
+    private List<WarpPatch> generatePatches() {
+        List<WarpPatch> patches = new ArrayList<>();
+        Iterator<Rectangle> grids = Utils.getPatches(scenario);
+        while (grids.hasNext()) {
+            Rectangle patch_grid = grids.next();
+            XY top_left = new XY(
+                    Math.max(0, patch_grid.getTopLeft().getX() - padding),
+                    Math.max(0, patch_grid.getTopLeft().getY() - padding));
+            XY bottom_right = new XY(
+                    Math.min(patch_grid.getBottomRight().getX() + padding, scenario.getGridSize().getX()),
+                    Math.min(patch_grid.getBottomRight().getY() + padding, scenario.getGridSize().getY()));
+            patches.add(new WarpPatch(this, patches.size(), patch_grid, new Rectangle(top_left, bottom_right.sub(top_left)),
+                    scenario.getParameters().getInfectionRadius(), scenario.getTicks(), window));
+        }
+
+        for (WarpPatch patch : patches) {
+            List<WarpPatch> senders = new ArrayList<>();
+            List<WarpPatch> receivers = new ArrayList<>();
+            for (WarpPatch other : patches) {
+                if (other == patch)
+                    continue;
+                if (other.getPatch_grid().overlaps(patch.getPadding_grid()))
+                    senders.add(other);
+                if (other.getPadding_grid().overlaps(patch.getPatch_grid()))
+                    receivers.add(other);
+            }
+            patch.setNeighbours(senders, receivers, scenario.getObstacles().stream()
+                    .filter(patch.getPadding_grid()::overlaps)
+                    .collect(Collectors.toList()));
+        }
+
+        // every patch starts with the persons in its padding grid, the padding at tick 0 is exact
+        int id = 0;
+        for (PersonInfo info : scenario.getPopulation()) {
+            for (WarpPatch patch : patches)
+                if (patch.getPadding_grid().contains(info.getPosition()))
+                    patch.addPerson(new Person(id, patch, scenario.getParameters(), info));
+            id++;
+        }
+        patches.forEach(WarpPatch::initialize);
+        return patches;
     }
 }
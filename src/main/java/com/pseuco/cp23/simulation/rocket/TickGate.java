@@ -0,0 +1,76 @@
+package com.pseuco.cp23.simulation.rocket;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds how far the patches may run ahead of the ticks the rocket handed out
+ * and stops all patches at the same tick once no further ticks are wanted
+ */
+class TickGate {
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition handed_out_changed = lock.newCondition();
+
+    private final int lookahead;
+    private final int k;
+
+    // the number of ticks whose results were handed out
+    private int handed_out = 0;
+    private int stop_tick = Integer.MAX_VALUE;
+
+    /**
+     * @param lookahead the number of ticks a patch may simulate ahead of the handed out ones
+     * @param k         the number of ticks between syncs
+     */
+    TickGate(int lookahead, int k) {
+        this.lookahead = lookahead;
+        this.k = k;
+    }
+
+    /**
+     * Waits till the patch may simulate the tick
+     *
+     * @return whether the patch shall simulate the tick, false if the patches stop at it
+     */
+    boolean enter(int tick) throws InterruptedException {
+        lock.lock();
+        try {
+            // once stopped nothing is handed out anymore, the patches rush to the stop
+            while (stop_tick == Integer.MAX_VALUE && tick >= handed_out + lookahead)
+                handed_out_changed.await();
+            return tick < stop_tick;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param ticks the number of ticks whose results were handed out
+     */
+    void handedOut(int ticks) {
+        lock.lock();
+        try {
+            handed_out = ticks;
+            handed_out_changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the patches at the first sync no patch may have entered yet, hence,
+     * every patch still reaches all syncs its neighbours wait for
+     */
+    void stop() {
+        lock.lock();
+        try {
+            // no patch entered a tick at or after handed_out + lookahead
+            stop_tick = (handed_out + lookahead + k - 1) / k * k;
+            handed_out_changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.pseuco.cp23.simulation.rocket;
+
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.TraceEntry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The trace entries of the ticks in flight, the patches write the infos of their persons
+ * right into the slot of their id, hence, the main thread neither sorts nor maps them
+ *
+ * <p>
+ * A tick is assembled in an array of its own, once the countdown of its persons reaches zero
+ * the patch writing the last persons wraps it into the trace entry. The main thread releases
+ * a tick after aggregating it which makes room for a tick a window ahead, see Rocket.
+ * </p>
+ */
+class TraceSlots {
+
+    /**
+     * The persons of a tick still being written
+     */
+    private static final class Slot {
+        private final int tick;
+        private final PersonInfo[] infos;
+        private final AtomicInteger remaining;
+        private volatile TraceEntry entry;
+
+        private Slot(int tick, int population) {
+            this.tick = tick;
+            this.infos = new PersonInfo[population];
+            this.remaining = new AtomicInteger(population);
+            this.entry = population == 0 ? new TraceEntry(Arrays.asList(infos)) : null;
+        }
+    }
+
+    private final int population;
+    private final AtomicReferenceArray<Slot> slots;
+    private volatile boolean closed = false;
+
+    /**
+     * @param population the number of persons, their ids are 0 to population - 1
+     * @param ticks      the number of ticks which may be assembled at the same time
+     */
+    TraceSlots(int population, int ticks) {
+        this.population = population;
+        this.slots = new AtomicReferenceArray<>(ticks);
+        for (int tick = 0; tick < ticks; tick++)
+            slots.set(tick, new Slot(tick, population));
+    }
+
+    /**
+     * Writes the info of a person at the tick, only called by the patch owning the person
+     */
+    void write(int tick, int id, PersonInfo info) {
+        Slot slot = slotOf(tick);
+        if (slot != null)
+            slot.infos[id] = info;
+    }
+
+    /**
+     * Counts down the persons written by a patch at the tick, the patch completing the tick wraps it
+     *
+     * @param count the number of persons the patch has written
+     */
+    void written(int tick, int count) {
+        Slot slot = slotOf(tick);
+        if (slot != null && slot.remaining.addAndGet(-count) == 0)
+            slot.entry = new TraceEntry(Arrays.asList(slot.infos));
+    }
+
+    /**
+     * Takes the trace entry of the tick and makes room for the tick a window ahead,
+     * only called by the main thread once all patches have handed out the tick
+     *
+     * @return the trace entry of the tick
+     */
+    TraceEntry release(int tick) {
+        Slot slot = slotOf(tick);
+        TraceEntry entry = slot != null ? slot.entry : null;
+        if (entry == null)
+            throw new IllegalStateException("the persons at tick " + tick + " are incomplete");
+        slots.set(tick % slots.length(), new Slot(tick + slots.length(), population));
+        return entry;
+    }
+
+    /**
+     * Drops all further ticks, e.g., once no further ticks are wanted, must be called before closing the rings
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * @return the slot of the tick or null if the slots are closed and the tick is not in flight
+     */
+    private Slot slotOf(int tick) {
+        Slot slot = slots.get(tick % slots.length());
+        if (slot.tick != tick) {
+            // the rings don't hold back the patches anymore once they are closed
+            if (closed)
+                return null;
+            throw new IllegalStateException("tick " + tick + " is not in flight");
+        }
+        return slot;
+    }
+}
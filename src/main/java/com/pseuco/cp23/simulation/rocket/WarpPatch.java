@@ -0,0 +1,448 @@
+package com.pseuco.cp23.simulation.rocket;
+
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.simulation.common.Context;
+import com.pseuco.cp23.simulation.common.InfectionKernel;
+import com.pseuco.cp23.simulation.common.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A patch of the starship, it simulates its padding itself instead of waiting for the
+ * neighbours and rolls back once their events show that it guessed wrong
+ */
+class WarpPatch implements Runnable, Context {
+
+    /**
+     * The persons a sender owns inside the padding of the receiver at a tick, never modified
+     */
+    record Event(int sender, int tick, List<Person> persons) {
+    }
+
+    /**
+     * The state of the patch at a tick, the persons are never modified
+     */
+    private record State(int tick, List<Person> own, List<Person> padding) {
+    }
+
+    // a move only depends on the persons within two cells of the person
+    static final int MOVEMENT_REACH = 2;
+
+    private final Starship starship;
+    private final int patch_id;
+    private final Rectangle patch_grid;
+    private final Rectangle padding_grid;
+    private List<Rectangle> obstacles;
+
+    private final int infection_radius;
+    private final int max_ticks;
+    private final int window;
+
+    // the patches owning a part of the padding and the patches this one is padding of,
+    // and at which index this patch is a sender of each receiver
+    private List<WarpPatch> senders = new ArrayList<>();
+    private List<WarpPatch> receivers = new ArrayList<>();
+    private int[] sender_index;
+
+    private final InfectionKernel infection_kernel = InfectionKernel.create();
+
+    // the state at the current tick, the padding is the guess for the parts without events
+    private List<Person> own = new ArrayList<>();
+    private List<Person> padding = new ArrayList<>();
+    private List<Person> population = new ArrayList<>();
+    private int current_tick = 0;
+
+    // the saved states, events received and events sent from the gvt on, at tick % ring
+    private final int ring;
+    private final State[] saved;
+    private Event[][] received_events;
+    private Event[][] sent_events;
+
+    // guards everything above, the starship holds the locks of all patches to compute the gvt
+    final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Event> inbox = new ConcurrentLinkedQueue<>();
+    private int gvt = 0;
+    private int committed = -1;
+
+    private volatile Thread thread;
+    private volatile boolean stopped = false;
+
+    private long rollbacks = 0;
+    private long rolled_back_ticks = 0;
+
+    WarpPatch(Starship starship, int patch_id, Rectangle patch_grid, Rectangle padding_grid, int infection_radius, int max_ticks, int window) {
+        this.starship = starship;
+        this.patch_id = patch_id;
+        this.patch_grid = patch_grid;
+        this.padding_grid = padding_grid;
+        this.infection_radius = infection_radius;
+        this.max_ticks = max_ticks;
+        this.window = window;
+
+        // the patch is at most `window` ticks ahead of the gvt
+        this.ring = window + 1;
+        this.saved = new State[ring];
+    }
+
+    /**
+     * Sets the patches owning a part of the padding and the patches whose padding overlaps with this patch,
+     * must be called on all patches before they are initialized
+     */
+    void setNeighbours(List<WarpPatch> senders, List<WarpPatch> receivers, List<Rectangle> obstacles) {
+        this.senders = senders;
+        this.receivers = receivers;
+        this.obstacles = obstacles;
+    }
+
+    void addPerson(Person person) {
+        if (patch_grid.contains(person.getPosition()))
+            own.add(person);
+        else
+            padding.add(person);
+    }
+
+    /**
+     * Saves the initial state, the padding at tick 0 is known from the scenario
+     */
+    void initialize() {
+        sender_index = new int[receivers.size()];
+        for (int receiver = 0; receiver < receivers.size(); receiver++)
+            sender_index[receiver] = receivers.get(receiver).senders.indexOf(this);
+        received_events = new Event[senders.size()][ring];
+        sent_events = new Event[receivers.size()][ring];
+
+        population = merge(own, padding);
+        save();
+    }
+
+    Rectangle getPatch_grid() {
+        return patch_grid;
+    }
+
+    Rectangle getPadding_grid() {
+        return padding_grid;
+    }
+
+    void setThread(Thread thread) {
+        this.thread = thread;
+    }
+
+    long getRollbacks() {
+        return rollbacks;
+    }
+
+    long getRolledBackTicks() {
+        return rolled_back_ticks;
+    }
+
+    /**
+     * Stops the patch at its next pass, e.g., because another patch or the starship failed
+     */
+    void stop() {
+        stopped = true;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            boolean busy;
+            lock.lock();
+            try {
+                if (gvt == max_ticks)
+                    return;
+                receive();
+                // run ahead without waiting for events, but not further than the window
+                busy = current_tick < max_ticks && current_tick < gvt + window;
+                if (busy)
+                    step();
+            } finally {
+                lock.unlock();
+            }
+            if (!busy) {
+                // only an event or a new gvt get the patch going again
+                starship.wakeUp();
+                if (inbox.isEmpty())
+                    LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Simulates the tick from the current state, guessing the padding where the events are missing
+     */
+    private void step() {
+        for (Person person : population)
+            person.tick();
+
+        // split the persons into the ones owned by the patch and the guesses for each sender
+        List<Person> next_own = new ArrayList<>();
+        List<List<Person>> guesses = new ArrayList<>();
+        for (int sender = 0; sender < senders.size(); sender++)
+            guesses.add(new ArrayList<>());
+        for (Person person : population) {
+            person.bustGhost();
+            if (patch_grid.contains(person.getPosition()))
+                next_own.add(person);
+            else
+                guesses.get(senderOf(person.getPosition())).add(person);
+        }
+
+        current_tick++;
+        own = next_own;
+        padding = paddingAt(current_tick, guesses);
+        population = merge(own, padding);
+        infection_kernel.spread(population, infection_radius);
+
+        save();
+        send();
+    }
+
+    /**
+     * @return the padding at the tick, the events received for it and the guesses for the other senders
+     */
+    private List<Person> paddingAt(int tick, List<List<Person>> guesses) {
+        List<List<Person>> regions = new ArrayList<>();
+        for (int sender = 0; sender < senders.size(); sender++) {
+            Event event = receivedAt(sender, tick);
+            // the persons of events are shared, the patch simulates clones of them
+            regions.add(event != null ? clones(event.persons()) : guesses.get(sender));
+        }
+        List<Person> result = new ArrayList<>();
+        Patch.mergeById(regions, result);
+        return result;
+    }
+
+    private int senderOf(XY position) {
+        for (int sender = 0; sender < senders.size(); sender++)
+            if (senders.get(sender).patch_grid.contains(position))
+                return sender;
+        throw new IllegalStateException("no patch owns " + position);
+    }
+
+    private Event receivedAt(int sender, int tick) {
+        Event event = received_events[sender][tick % ring];
+        return event != null && event.tick() == tick ? event : null;
+    }
+
+    private void save() {
+        saved[current_tick % ring] = new State(current_tick, clones(own), clones(padding));
+    }
+
+    /**
+     * Sends the persons inside the receivers' paddings, unless the same persons were already sent for the tick
+     */
+    private void send() {
+        for (int receiver = 0; receiver < receivers.size(); receiver++) {
+            WarpPatch patch = receivers.get(receiver);
+            List<Person> persons = new ArrayList<>();
+            for (Person person : own)
+                if (patch.padding_grid.contains(person.getPosition()))
+                    persons.add(person);
+
+            // lazy cancellation: a rollback which recomputed the same persons cancels nothing
+            Event previous = sent_events[receiver][current_tick % ring];
+            if (previous != null && previous.tick() == current_tick && sameInfo(previous.persons(), persons))
+                continue;
+
+            Event event = new Event(sender_index[receiver], current_tick, clones(persons, patch));
+            sent_events[receiver][current_tick % ring] = event;
+            patch.inbox.add(event);
+            LockSupport.unpark(patch.thread);
+        }
+    }
+
+    /**
+     * Takes the events from the inbox, checks them against what the patch guessed and rolls back
+     * to the earliest tick a step of which depended on a wrong guess
+     */
+    private void receive() {
+        int target = Integer.MAX_VALUE;
+        for (Event event = inbox.poll(); event != null; event = inbox.poll()) {
+            int tick = event.tick();
+            received_events[event.sender()][tick % ring] = event;
+            if (tick > current_tick)
+                continue;
+
+            State state = saved[tick % ring];
+            List<Person> guess = new ArrayList<>();
+            List<Person> rest = new ArrayList<>();
+            for (Person person : state.padding())
+                (senders.get(event.sender()).patch_grid.contains(person.getPosition()) ? guess : rest).add(person);
+
+            // the step into the tick spread the infection from the guessed sources,
+            // the step from the tick moved the own persons next to the guessed ones
+            if (!sameSources(guess, event.persons()))
+                target = Math.min(target, tick - 1);
+            else if (tick == current_tick || !sameBorder(guess, event.persons()))
+                target = Math.min(target, tick);
+
+            // from now on the saved state has the sender's persons instead of the guess
+            List<Person> corrected = new ArrayList<>();
+            Patch.mergeById(List.of(rest, event.persons()), corrected);
+            saved[tick % ring] = new State(tick, state.own(), corrected);
+        }
+        if (target != Integer.MAX_VALUE)
+            rollback(target);
+    }
+
+    /**
+     * Restores the saved state at the tick, it is simulated again from there on
+     */
+    private void rollback(int tick) {
+        if (tick < gvt)
+            throw new IllegalStateException("patch " + patch_id + " cannot roll back to " + tick + " below the gvt " + gvt);
+        if (tick < current_tick) {
+            rollbacks++;
+            rolled_back_ticks += current_tick - tick;
+        }
+        State state = saved[tick % ring];
+        own = clones(state.own());
+        padding = clones(state.padding());
+        population = merge(own, padding);
+        current_tick = tick;
+    }
+
+    /**
+     * @return the earliest tick the patch may roll back to, must be called with the lock held
+     */
+    int floor() {
+        int floor = current_tick;
+        for (Event event : inbox)
+            floor = Math.min(floor, event.tick() - 1);
+        return floor;
+    }
+
+    /**
+     * Advances the gvt, must be called with the lock held
+     *
+     * @return the persons owned by the patch at the ticks up to the gvt that weren't committed yet
+     */
+    List<List<Person>> commit(int gvt) {
+        List<List<Person>> committed_ticks = new ArrayList<>();
+        for (int tick = committed + 1; tick <= gvt; tick++)
+            committed_ticks.add(saved[tick % ring].own());
+        committed = gvt;
+
+        // fossil collection, the patch never rolls back below the gvt
+        for (int tick = this.gvt; tick < gvt; tick++) {
+            int slot = tick % ring;
+            if (saved[slot] != null && saved[slot].tick() == tick)
+                saved[slot] = null;
+            for (Event[] events : received_events)
+                if (events[slot] != null && events[slot].tick() <= tick)
+                    events[slot] = null;
+            for (Event[] events : sent_events)
+                if (events[slot] != null && events[slot].tick() <= tick)
+                    events[slot] = null;
+        }
+        this.gvt = gvt;
+        LockSupport.unpark(thread);
+        return committed_ticks;
+    }
+
+    /**
+     * Compares the infectious and coughing persons within the infection radius of the patch
+     */
+    private boolean sameSources(List<Person> guess, List<Person> actual) {
+        List<Person> guessed_sources = sources(guess);
+        List<Person> actual_sources = sources(actual);
+        if (guessed_sources.size() != actual_sources.size())
+            return false;
+        for (int i = 0; i < guessed_sources.size(); i++)
+            if (guessed_sources.get(i).getId() != actual_sources.get(i).getId()
+                    || !guessed_sources.get(i).getPosition().equals(actual_sources.get(i).getPosition()))
+                return false;
+        return true;
+    }
+
+    private List<Person> sources(List<Person> persons) {
+        List<Person> sources = new ArrayList<>();
+        for (Person person : persons)
+            if (person.isInfectious() && person.isCoughing()
+                    && distanceX(person.getPosition()) + distanceY(person.getPosition()) <= infection_radius)
+                sources.add(person);
+        return sources;
+    }
+
+    /**
+     * Compares the persons within reach of a move of the own persons, they may enter the patch or block a move
+     */
+    private boolean sameBorder(List<Person> guess, List<Person> actual) {
+        return sameInfo(border(guess), border(actual));
+    }
+
+    private List<Person> border(List<Person> persons) {
+        List<Person> border = new ArrayList<>();
+        for (Person person : persons)
+            if (Math.max(distanceX(person.getPosition()), distanceY(person.getPosition())) <= MOVEMENT_REACH)
+                border.add(person);
+        return border;
+    }
+
+    private int distanceX(XY position) {
+        return Math.max(0, Math.max(patch_grid.getTopLeft().getX() - position.getX(),
+                position.getX() - patch_grid.getBottomRight().getX() + 1));
+    }
+
+    private int distanceY(XY position) {
+        return Math.max(0, Math.max(patch_grid.getTopLeft().getY() - position.getY(),
+                position.getY() - patch_grid.getBottomRight().getY() + 1));
+    }
+
+    private static boolean sameInfo(List<Person> first, List<Person> second) {
+        if (first.size() != second.size())
+            return false;
+        for (int i = 0; i < first.size(); i++)
+            if (first.get(i).getId() != second.get(i).getId() || !first.get(i).getInfo().equals(second.get(i).getInfo()))
+                return false;
+        return true;
+    }
+
+    private List<Person> clones(List<Person> persons) {
+        return clones(persons, this);
+    }
+
+    private static List<Person> clones(List<Person> persons, Context context) {
+        List<Person> clones = new ArrayList<>(persons.size());
+        for (Person person : persons)
+            clones.add(person.clone(context));
+        return clones;
+    }
+
+    private static List<Person> merge(List<Person> first, List<Person> second) {
+        List<Person> merged = new ArrayList<>(first.size() + second.size());
+        Patch.mergeById(List.of(first, second), merged);
+        return merged;
+    }
+
+    /**
+     * @return the padding grid
+     */
+    @Override
+    public Rectangle getGrid() {
+        return padding_grid;
+    }
+
+    /**
+     * @return the obstacles inside the padding grid
+     */
+    @Override
+    public List<Rectangle> getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * @return the persons of the patch and its padding
+     */
+    @Override
+    public List<Person> getPopulation() {
+        return population;
+    }
+}
@@ -1,13 +1,18 @@
 package com.pseuco.cp23.simulation.slug;
 
 import com.pseuco.cp23.simulation.common.Context;
+import com.pseuco.cp23.simulation.common.InfectionKernel;
 import com.pseuco.cp23.simulation.common.Person;
+import com.pseuco.cp23.simulation.common.RngLookahead;
 import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.common.TickPublisher;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.pseuco.cp23.model.Output;
@@ -16,8 +21,8 @@ import com.pseuco.cp23.model.Query;
 import com.pseuco.cp23.model.Rectangle;
 import com.pseuco.cp23.model.Scenario;
 import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TickResult;
 import com.pseuco.cp23.model.TraceEntry;
-import com.pseuco.cp23.model.XY;
 
 /**
  * The sequential reference implementation.
@@ -30,6 +35,14 @@ public class Slug implements Simulation, Context {
     private final List<TraceEntry> trace = new ArrayList<>();
     private final Map<String, List<Statistics>> statistics = new HashMap<>();
 
+    private Consumer<TraceEntry> traceListener = null;
+
+    private TickPublisher results = null;
+    private RngLookahead rngLookahead = null;
+    private TraceEntry lastEntry = null;
+
+    private final InfectionKernel infectionKernel = InfectionKernel.create();
+
     public Slug(Scenario scenario) {
         this.scenario = scenario;
         this.populate();
@@ -75,6 +88,73 @@ public class Slug implements Simulation, Context {
         return new Output(this.scenario, this.trace, this.statistics);
     }
 
+    @Override
+    public boolean setTraceListener(Consumer<TraceEntry> listener) {
+        // the entry of the initial tick has already been recorded by the constructor
+        this.trace.forEach(listener);
+        this.trace.clear();
+        this.traceListener = listener;
+        return true;
+    }
+
+    /**
+     * Computes the random numbers of the persons ahead of the simulation on extra threads.
+     *
+     * <p>
+     * Must be called before the simulation is run. The output is the same as without the
+     * lookahead.
+     * </p>
+     *
+     * @param threads The number of producer threads.
+     * @param window  The number of digests buffered per person.
+     */
+    public void enableRngLookahead(int threads, int window) {
+        this.rngLookahead = new RngLookahead(this.scenario.getPopulation(), window, threads);
+        for (Person person : this.population) {
+            person.setRngLookahead(this.rngLookahead);
+        }
+    }
+
+    @Override
+    public Flow.Publisher<TickResult> publishResults(boolean trace) {
+        this.results = new TickPublisher(trace);
+        return this.results;
+    }
+
+    /**
+     * Publishes the results of the last recorded tick.
+     *
+     * @return Whether the simulation shall continue.
+     */
+    private boolean publish(int tick) {
+        if (this.results == null) {
+            return true;
+        }
+        try {
+            return this.results.publish(tick, this.statistics, () -> this.lastEntry != null
+                    ? this.lastEntry
+                    : new TraceEntry(this.getPopulationInfo()));
+        } catch (InterruptedException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    /**
+     * Returns info objects capturing the current state of the population.
+     *
+     * <p>
+     * The returned objects are immutable and may be shared freely, e.g., to seed
+     * another simulation starting from the current tick.
+     * </p>
+     *
+     * @return The current state of the population ordered by id.
+     */
+    public List<PersonInfo> getPopulationInfo() {
+        return this.population.stream()
+                .map(Person::getInfo)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
     private void extendStatistics() {
         // we collect statistics based on the current SI²R values
         for (Map.Entry<String, Query> entry : this.scenario.getQueries().entrySet()) {
@@ -103,13 +183,17 @@ public class Slug implements Simulation, Context {
     private void extendOutput() {
         // we extend the statists and the trace for the current tick
         if (this.scenario.getTrace()) {
-            this.trace.add(
-                new TraceEntry(
-                        this.population.stream()
-                                .map(Person::getInfo)
-                                .collect(Collectors.toList())
-                )
+            final TraceEntry entry = new TraceEntry(
+                    this.population.stream()
+                            .map(Person::getInfo)
+                            .collect(Collectors.toList())
             );
+            this.lastEntry = entry;
+            if (this.traceListener != null) {
+                this.traceListener.accept(entry);
+            } else {
+                this.trace.add(entry);
+            }
         }
 
         this.extendStatistics();
@@ -125,25 +209,7 @@ public class Slug implements Simulation, Context {
         this.population.stream().forEach(Person::bustGhost);
 
         // now compute how the infection spreads between the population
-        for (int i = 0; i < this.population.size(); i++) {
-            for (int j = i + 1; j < this.population.size(); j++) {
-                final Person iPerson = this.population.get(i);
-                final Person jPerson = this.population.get(j);
-                final XY iPosition = iPerson.getPosition();
-                final XY jPosition = jPerson.getPosition();
-                final int deltaX = Math.abs(iPosition.getX() - jPosition.getX());
-                final int deltaY = Math.abs(iPosition.getY() - jPosition.getY());
-                final int distance = deltaX + deltaY;
-                if (distance <= this.scenario.getParameters().getInfectionRadius()) {
-                    if (iPerson.isInfectious() && iPerson.isCoughing() && jPerson.isBreathing()) {
-                        jPerson.infect();
-                    }
-                    if (jPerson.isInfectious() && jPerson.isCoughing() && iPerson.isBreathing()) {
-                        iPerson.infect();
-                    }
-                }
-            }
-        }
+        this.infectionKernel.spread(this.population, this.scenario.getParameters().getInfectionRadius());
 
         // we need to collect statistics and extend the recorded trace
         this.extendOutput();
@@ -151,9 +217,23 @@ public class Slug implements Simulation, Context {
 
     @Override
     public void run() {
-        for (int tick = 0; tick < this.scenario.getTicks(); tick++) {
-            // if this were a patch, the `onPatchTick` method should be called here
-            this.tick();
+        if (this.rngLookahead != null) {
+            this.rngLookahead.start();
+        }
+        if (this.publish(0)) {
+            for (int tick = 0; tick < this.scenario.getTicks(); tick++) {
+                // if this were a patch, the `onPatchTick` method should be called here
+                this.tick();
+                if (!this.publish(tick + 1)) {
+                    break;
+                }
+            }
+        }
+        if (this.rngLookahead != null) {
+            this.rngLookahead.stop();
+        }
+        if (this.results != null) {
+            this.results.complete();
         }
     }
 }
\ No newline at end of file
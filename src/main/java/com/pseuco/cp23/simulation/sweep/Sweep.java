@@ -0,0 +1,183 @@
+package com.pseuco.cp23.simulation.sweep;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Parameters;
+import com.pseuco.cp23.model.Partition;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TraceEntry;
+import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.slug.Slug;
+
+/**
+ * Runs several variants of a scenario which only differ in their parameters after
+ * some <em>branch tick</em>.
+ *
+ * <p>
+ * The ticks up to the branch tick are simulated only once. The state of the population
+ * at the branch tick is captured as immutable info objects which are shared by all
+ * variants, i.e., each engine only creates its own mutable persons from them. The
+ * variants are then simulated concurrently, each by its own engine instance.
+ * </p>
+ */
+public class Sweep {
+    private final Scenario scenario;
+    private final int branchTick;
+    private final List<Variant> variants;
+    private final Function<Scenario, Simulation> engine;
+    private final int threads;
+
+    /**
+     * Constructs a sweep simulating the variants with the sequential engine.
+     *
+     * @param scenario   The scenario providing the common prefix.
+     * @param branchTick The tick after which the parameters of the variants apply.
+     * @param variants   The variants to simulate.
+     */
+    public Sweep(Scenario scenario, int branchTick, List<Variant> variants) {
+        this(scenario, branchTick, variants, Slug::new, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a sweep with the given parameters.
+     *
+     * @param scenario   The scenario providing the common prefix.
+     * @param branchTick The tick after which the parameters of the variants apply.
+     * @param variants   The variants to simulate.
+     * @param engine     Creates the engine simulating a variant from the branch tick on.
+     * @param threads    The maximal number of variants to simulate concurrently.
+     */
+    public Sweep(
+            Scenario scenario,
+            int branchTick,
+            List<Variant> variants,
+            Function<Scenario, Simulation> engine,
+            int threads) {
+        if (branchTick < 0 || branchTick > scenario.getTicks()) {
+            throw new IllegalArgumentException(
+                "branch tick " + branchTick + " is outside of the scenario's " + scenario.getTicks() + " ticks"
+            );
+        }
+        final Set<String> names = new HashSet<>();
+        for (Variant variant : variants) {
+            if (!names.add(variant.getName())) {
+                throw new IllegalArgumentException("duplicate variant `" + variant.getName() + "`");
+            }
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("at least one thread is required");
+        }
+        this.scenario = scenario;
+        this.branchTick = branchTick;
+        this.variants = variants;
+        this.engine = engine;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs the sweep.
+     *
+     * @return The output of each variant by name in the order of the variants. Each output
+     *         covers all ticks of the scenario, i.e., includes the common prefix.
+     * @throws InterruptedException If interrupted while waiting for the variants.
+     * @throws ExecutionException   If simulating some variant failed.
+     */
+    public Map<String, Output> run() throws InterruptedException, ExecutionException {
+        // simulate the common prefix once
+        final Slug prefix = new Slug(this.derive(
+                this.scenario.getParameters(), this.branchTick, this.scenario.getPopulation()
+        ));
+        prefix.run();
+        final Output prefixOutput = prefix.getOutput();
+        final List<PersonInfo> snapshot = prefix.getPopulationInfo();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(this.threads, this.variants.size()))
+        );
+        try {
+            final Map<String, Future<Output>> futures = new LinkedHashMap<>();
+            for (Variant variant : this.variants) {
+                futures.put(variant.getName(), executor.submit(() -> {
+                    final Simulation simulation = this.engine.apply(this.derive(
+                            variant.getParameters(), this.scenario.getTicks() - this.branchTick, snapshot
+                    ));
+                    simulation.run();
+                    return this.stitch(variant, prefixOutput, simulation.getOutput());
+                }));
+            }
+            final Map<String, Output> outputs = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Output>> entry : futures.entrySet()) {
+                outputs.put(entry.getKey(), entry.getValue().get());
+            }
+            return outputs;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Derives a scenario from the swept scenario.
+     *
+     * <p>
+     * The partition is copied as engines may modify it.
+     * </p>
+     */
+    private Scenario derive(Parameters parameters, int ticks, List<PersonInfo> population) {
+        return new Scenario(
+                this.scenario.getName(),
+                parameters,
+                ticks,
+                this.scenario.getGridSize(),
+                this.scenario.getTrace(),
+                new Partition(
+                        new ArrayList<>(this.scenario.getPartition().getX()),
+                        new ArrayList<>(this.scenario.getPartition().getY())
+                ),
+                this.scenario.getObstacles(),
+                this.scenario.getQueries(),
+                population
+        );
+    }
+
+    /**
+     * Concatenates the output of the prefix and the output of a variant.
+     *
+     * <p>
+     * The first tick of the variant is the last tick of the prefix and is thus skipped.
+     * </p>
+     */
+    private Output stitch(Variant variant, Output prefix, Output suffix) {
+        final List<TraceEntry> trace = new ArrayList<>(prefix.getTrace());
+        if (!suffix.getTrace().isEmpty()) {
+            trace.addAll(suffix.getTrace().subList(1, suffix.getTrace().size()));
+        }
+
+        final Map<String, List<Statistics>> statistics = new HashMap<>();
+        for (String queryKey : this.scenario.getQueries().keySet()) {
+            final List<Statistics> entries = new ArrayList<>(prefix.getStatistics().get(queryKey));
+            final List<Statistics> suffixEntries = suffix.getStatistics().get(queryKey);
+            entries.addAll(suffixEntries.subList(1, suffixEntries.size()));
+            statistics.put(queryKey, entries);
+        }
+
+        return new Output(
+                this.derive(variant.getParameters(), this.scenario.getTicks(), this.scenario.getPopulation()),
+                trace,
+                statistics
+        );
+    }
+}
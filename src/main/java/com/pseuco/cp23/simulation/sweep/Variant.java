@@ -0,0 +1,40 @@
+package com.pseuco.cp23.simulation.sweep;
+
+import com.pseuco.cp23.model.Parameters;
+
+/**
+ * Represents a single variant of a parameter sweep.
+ */
+public class Variant {
+    private final String name;
+    private final Parameters parameters;
+
+    /**
+     * Constructs a variant with the given name and parameters.
+     *
+     * @param name       The name identifying the variant in the results.
+     * @param parameters The parameters to use after the branch tick.
+     */
+    public Variant(String name, Parameters parameters) {
+        this.name = name;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the name identifying the variant in the results.
+     *
+     * @return The name identifying the variant in the results.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the parameters to use after the branch tick.
+     *
+     * @return The parameters to use after the branch tick.
+     */
+    public Parameters getParameters() {
+        return this.parameters;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Parameter sweeps over a scenario sharing a common simulation prefix.
+ */
+package com.pseuco.cp23.simulation.sweep;
@@ -0,0 +1,431 @@
+package com.pseuco.cp23.trace;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.pseuco.cp23.model.Direction;
+import com.pseuco.cp23.model.InfectionState;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.TraceEntry;
+import com.pseuco.cp23.model.XY;
+
+/**
+ * A trace storing full entries only every few ticks and what changed in between.
+ *
+ * <p>
+ * Every <em>keyframe interval</em> ticks the population is stored completely. For the
+ * other ticks the trace stores the direction of each person as a 4-bit code, the persons
+ * whose infection state changed, and the persons which do not follow the rules of the
+ * simulation. The remaining information is inferred from the previous tick: a person's
+ * position is its previous position moved by its new direction, its random number
+ * generator state is the SHA-256 digest of the previous one, and its
+ * <em>inStateSince</em>-counter is incremented by one.
+ * </p>
+ *
+ * <p>
+ * Whether the inference holds is checked when appending an entry, hence, any sequence of
+ * entries round-trips exactly. The trace may be filled by an engine as a trace listener.
+ * Appending is not thread-safe.
+ * </p>
+ */
+public class DeltaTrace implements Consumer<TraceEntry> {
+    private static final int MAGIC = 0x44545231;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final InfectionState.State[] STATES = InfectionState.State.values();
+
+    /**
+     * A tick of the trace.
+     */
+    private interface Frame {
+    }
+
+    /**
+     * A tick storing the complete population.
+     */
+    private static class Keyframe implements Frame {
+        private final List<PersonInfo> population;
+
+        private Keyframe(List<PersonInfo> population) {
+            this.population = population;
+        }
+    }
+
+    /**
+     * A tick storing the changes relative to the previous tick.
+     */
+    private static class Delta implements Frame {
+        /**
+         * The direction of each person, two persons per byte.
+         */
+        private final byte[] directions;
+
+        private final int[] stateIds;
+        private final byte[] states;
+        private final int[] stateSince;
+
+        private final int[] overrideIds;
+        private final PersonInfo[] overrides;
+
+        private Delta(
+                byte[] directions,
+                int[] stateIds,
+                byte[] states,
+                int[] stateSince,
+                int[] overrideIds,
+                PersonInfo[] overrides) {
+            this.directions = directions;
+            this.stateIds = stateIds;
+            this.states = states;
+            this.stateSince = stateSince;
+            this.overrideIds = overrideIds;
+            this.overrides = overrides;
+        }
+
+        private Direction getDirection(int id) {
+            return DIRECTIONS[(this.directions[id >> 1] >> ((id & 1) << 2)) & 0xF];
+        }
+    }
+
+    /**
+     * The population of a single tick in a mutable form used for decoding.
+     */
+    private static class Cursor {
+        private final MessageDigest messageDigest = newDigest();
+
+        private String[] names;
+        private int[] xs;
+        private int[] ys;
+        private byte[][] seeds;
+        private byte[] states;
+        private int[] since;
+        private byte[] directions;
+
+        private void load(Keyframe keyframe) {
+            final int size = keyframe.population.size();
+            this.names = new String[size];
+            this.xs = new int[size];
+            this.ys = new int[size];
+            this.seeds = new byte[size][];
+            this.states = new byte[size];
+            this.since = new int[size];
+            this.directions = new byte[size];
+            for (int id = 0; id < size; id++) {
+                this.set(id, keyframe.population.get(id));
+            }
+        }
+
+        private void set(int id, PersonInfo info) {
+            this.names[id] = info.getName();
+            this.xs[id] = info.getPosition().getX();
+            this.ys[id] = info.getPosition().getY();
+            this.seeds[id] = info.getSeed();
+            this.states[id] = (byte) info.getInfectionState().getState().ordinal();
+            this.since[id] = info.getInfectionState().getInStateSince();
+            this.directions[id] = (byte) info.getDirection().ordinal();
+        }
+
+        private void apply(Delta delta) {
+            for (int id = 0; id < this.names.length; id++) {
+                final Direction direction = delta.getDirection(id);
+                this.xs[id] += direction.getVector().getX();
+                this.ys[id] += direction.getVector().getY();
+                this.seeds[id] = this.messageDigest.digest(this.seeds[id]);
+                this.since[id]++;
+                this.directions[id] = (byte) direction.ordinal();
+            }
+            for (int i = 0; i < delta.stateIds.length; i++) {
+                this.states[delta.stateIds[i]] = delta.states[i];
+                this.since[delta.stateIds[i]] = delta.stateSince[i];
+            }
+            for (int i = 0; i < delta.overrideIds.length; i++) {
+                this.set(delta.overrideIds[i], delta.overrides[i]);
+            }
+        }
+
+        private TraceEntry toEntry() {
+            final List<PersonInfo> population = new ArrayList<>(this.names.length);
+            for (int id = 0; id < this.names.length; id++) {
+                population.add(new PersonInfo(
+                        this.names[id],
+                        new XY(this.xs[id], this.ys[id]),
+                        this.seeds[id],
+                        new InfectionState(STATES[this.states[id]], this.since[id]),
+                        DIRECTIONS[this.directions[id]]
+                ));
+            }
+            return new TraceEntry(population);
+        }
+    }
+
+    private final int keyframeInterval;
+
+    private final List<Frame> frames = new ArrayList<>();
+
+    private final MessageDigest messageDigest = newDigest();
+
+    private List<PersonInfo> previous = null;
+
+    /**
+     * Constructs an empty trace.
+     *
+     * @param keyframeInterval The number of ticks between two keyframes.
+     */
+    public DeltaTrace(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("the keyframe interval must be positive");
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    /**
+     * Returns the number of ticks between two keyframes.
+     *
+     * @return The number of ticks between two keyframes.
+     */
+    public int getKeyframeInterval() {
+        return this.keyframeInterval;
+    }
+
+    /**
+     * Returns the number of ticks of the trace.
+     *
+     * @return The number of ticks of the trace.
+     */
+    public int size() {
+        return this.frames.size();
+    }
+
+    /**
+     * Appends the entry of the next tick.
+     *
+     * @param entry The entry to append.
+     */
+    @Override
+    public void accept(TraceEntry entry) {
+        final List<PersonInfo> population = entry.getPopulation();
+        if (this.frames.size() % this.keyframeInterval == 0
+                || this.previous == null
+                || this.previous.size() != population.size()) {
+            this.frames.add(new Keyframe(population));
+        } else {
+            this.frames.add(this.encode(this.previous, population));
+        }
+        this.previous = population;
+    }
+
+    private Delta encode(List<PersonInfo> previous, List<PersonInfo> current) {
+        final byte[] directions = new byte[(current.size() + 1) / 2];
+        final List<Integer> stateIds = new ArrayList<>();
+        final List<Integer> overrideIds = new ArrayList<>();
+        for (int id = 0; id < current.size(); id++) {
+            final PersonInfo before = previous.get(id);
+            final PersonInfo after = current.get(id);
+            directions[id >> 1] |= after.getDirection().ordinal() << ((id & 1) << 2);
+
+            final InfectionState beforeState = before.getInfectionState();
+            final InfectionState afterState = after.getInfectionState();
+            if (!after.getName().equals(before.getName())
+                    || !after.getPosition().equals(before.getPosition().add(after.getDirection().getVector()))
+                    || !Arrays.equals(after.getSeed(), this.messageDigest.digest(before.getSeed()))) {
+                overrideIds.add(id);
+            } else if (afterState.getState() != beforeState.getState()
+                    || afterState.getInStateSince() != beforeState.getInStateSince() + 1) {
+                stateIds.add(id);
+            }
+        }
+
+        final byte[] states = new byte[stateIds.size()];
+        final int[] stateSince = new int[stateIds.size()];
+        for (int i = 0; i < states.length; i++) {
+            final InfectionState state = current.get(stateIds.get(i)).getInfectionState();
+            states[i] = (byte) state.getState().ordinal();
+            stateSince[i] = state.getInStateSince();
+        }
+        final PersonInfo[] overrides = new PersonInfo[overrideIds.size()];
+        for (int i = 0; i < overrides.length; i++) {
+            overrides[i] = current.get(overrideIds.get(i));
+        }
+        return new Delta(
+                directions,
+                stateIds.stream().mapToInt(Integer::intValue).toArray(),
+                states,
+                stateSince,
+                overrideIds.stream().mapToInt(Integer::intValue).toArray(),
+                overrides
+        );
+    }
+
+    /**
+     * Decodes the entry of the given tick.
+     *
+     * <p>
+     * Decoding starts from the closest keyframe before the tick, hence, it takes at most
+     * <em>keyframe interval</em> steps.
+     * </p>
+     *
+     * @param tick The tick to decode.
+     * @return The entry of the given tick.
+     */
+    public TraceEntry getEntry(int tick) {
+        if (tick < 0 || tick >= this.frames.size()) {
+            throw new IndexOutOfBoundsException("tick " + tick + " is not part of the trace");
+        }
+        int start = tick;
+        while (!(this.frames.get(start) instanceof Keyframe)) {
+            start--;
+        }
+        final Frame frame = this.frames.get(tick);
+        if (frame instanceof Keyframe) {
+            return new TraceEntry(((Keyframe) frame).population);
+        }
+        final Cursor cursor = new Cursor();
+        cursor.load((Keyframe) this.frames.get(start));
+        for (int current = start + 1; current <= tick; current++) {
+            cursor.apply((Delta) this.frames.get(current));
+        }
+        return cursor.toEntry();
+    }
+
+    /**
+     * Decodes all entries in tick order.
+     *
+     * @param consumer The consumer receiving the entries.
+     */
+    public void forEach(Consumer<TraceEntry> consumer) {
+        final Cursor cursor = new Cursor();
+        for (Frame frame : this.frames) {
+            if (frame instanceof Keyframe) {
+                cursor.load((Keyframe) frame);
+                consumer.accept(new TraceEntry(((Keyframe) frame).population));
+            } else {
+                cursor.apply((Delta) frame);
+                consumer.accept(cursor.toEntry());
+            }
+        }
+    }
+
+    /**
+     * Writes the trace in a binary format to the given stream.
+     *
+     * @param stream The stream to write to. The stream is not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    public void write(OutputStream stream) throws IOException {
+        final DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(this.keyframeInterval);
+        out.writeInt(this.frames.size());
+        for (Frame frame : this.frames) {
+            if (frame instanceof Keyframe) {
+                final List<PersonInfo> population = ((Keyframe) frame).population;
+                out.writeBoolean(true);
+                out.writeInt(population.size());
+                for (PersonInfo info : population) {
+                    writePerson(out, info);
+                }
+            } else {
+                final Delta delta = (Delta) frame;
+                out.writeBoolean(false);
+                out.write(delta.directions);
+                out.writeInt(delta.stateIds.length);
+                for (int i = 0; i < delta.stateIds.length; i++) {
+                    out.writeInt(delta.stateIds[i]);
+                    out.writeByte(delta.states[i]);
+                    out.writeInt(delta.stateSince[i]);
+                }
+                out.writeInt(delta.overrideIds.length);
+                for (int i = 0; i < delta.overrideIds.length; i++) {
+                    out.writeInt(delta.overrideIds[i]);
+                    writePerson(out, delta.overrides[i]);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a trace written by <em>write</em> from the given stream.
+     *
+     * @param stream The stream to read from. The stream is not closed.
+     * @return The trace read from the stream.
+     * @throws IOException If reading from the stream fails or the data is malformed.
+     */
+    public static DeltaTrace read(InputStream stream) throws IOException {
+        final DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a delta trace");
+        }
+        final DeltaTrace trace = new DeltaTrace(in.readInt());
+        final int size = in.readInt();
+        int population = 0;
+        for (int tick = 0; tick < size; tick++) {
+            if (in.readBoolean()) {
+                population = in.readInt();
+                final List<PersonInfo> persons = new ArrayList<>(population);
+                for (int id = 0; id < population; id++) {
+                    persons.add(readPerson(in));
+                }
+                trace.frames.add(new Keyframe(persons));
+            } else {
+                final byte[] directions = new byte[(population + 1) / 2];
+                in.readFully(directions);
+                final int stateCount = in.readInt();
+                final int[] stateIds = new int[stateCount];
+                final byte[] states = new byte[stateCount];
+                final int[] stateSince = new int[stateCount];
+                for (int i = 0; i < stateCount; i++) {
+                    stateIds[i] = in.readInt();
+                    states[i] = in.readByte();
+                    stateSince[i] = in.readInt();
+                }
+                final int overrideCount = in.readInt();
+                final int[] overrideIds = new int[overrideCount];
+                final PersonInfo[] overrides = new PersonInfo[overrideCount];
+                for (int i = 0; i < overrideCount; i++) {
+                    overrideIds[i] = in.readInt();
+                    overrides[i] = readPerson(in);
+                }
+                trace.frames.add(new Delta(directions, stateIds, states, stateSince, overrideIds, overrides));
+            }
+        }
+        return trace;
+    }
+
+    private static void writePerson(DataOutputStream out, PersonInfo info) throws IOException {
+        out.writeUTF(info.getName());
+        out.writeInt(info.getPosition().getX());
+        out.writeInt(info.getPosition().getY());
+        out.writeShort(info.getSeed().length);
+        out.write(info.getSeed());
+        out.writeByte(info.getInfectionState().getState().ordinal());
+        out.writeInt(info.getInfectionState().getInStateSince());
+        out.writeByte(info.getDirection().ordinal());
+    }
+
+    private static PersonInfo readPerson(DataInputStream in) throws IOException {
+        final String name = in.readUTF();
+        final XY position = new XY(in.readInt(), in.readInt());
+        final byte[] seed = new byte[in.readUnsignedShort()];
+        in.readFully(seed);
+        final InfectionState state = new InfectionState(STATES[in.readUnsignedByte()], in.readInt());
+        return new PersonInfo(name, position, seed, state, DIRECTIONS[in.readUnsignedByte()]);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Compact representations of traces.
+ */
+package com.pseuco.cp23.trace;
@@ -0,0 +1,53 @@
+package com.pseuco.cp23;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import com.pseuco.cp23.output.ParallelGzipOutputStream;
+
+import org.junit.Test;
+
+public class TestParallelGzipOutputStream {
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return stream.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testRoundtrip() throws IOException {
+        final Random random = new Random(42);
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream stream = new ParallelGzipOutputStream(compressed, 4096, 4, Deflater.DEFAULT_COMPRESSION)) {
+            for (int i = 0; i < 100; i++) {
+                final byte[] chunk = new byte[random.nextInt(3000)];
+                for (int j = 0; j < chunk.length; j++) {
+                    chunk[j] = (byte) ('a' + random.nextInt(4));
+                }
+                stream.write(chunk);
+                expected.write(chunk);
+                stream.write('\n');
+                expected.write('\n');
+                stream.flush();
+            }
+        }
+        // the data spans many blocks, hence, the file consists of many members
+        assertTrue(expected.size() > 10 * 4096);
+        assertArrayEquals(expected.toByteArray(), decompress(compressed.toByteArray()));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(compressed).close();
+        assertArrayEquals(new byte[0], decompress(compressed.toByteArray()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.pseuco.cp23;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.generator.ScenarioGenerator;
+import com.pseuco.cp23.model.InfectionState;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.XY;
+
+import org.junit.Test;
+
+public class TestScenarioGenerator {
+    private static byte[] generate(String... args) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ScenarioGenerator.fromArgs(args).write(stream);
+        return stream.toByteArray();
+    }
+
+    @Test
+    public void testDeterministic() throws IOException {
+        assertArrayEquals(generate("--seed", "7", "--obstacles", "5"), generate("--seed", "7", "--obstacles", "5"));
+        assertFalse(java.util.Arrays.equals(generate("--seed", "7"), generate("--seed", "8")));
+    }
+
+    @Test
+    public void testValid() throws IOException {
+        final Scenario scenario = new ObjectMapper().readValue(generate(
+            "--profile", "CHECKERBOARD", "--persons", "500", "--width", "60", "--height", "40",
+            "--patches-x", "3", "--queries", "4"
+        ), Scenario.class);
+        assertEquals(500, scenario.getPopulation().size());
+        assertEquals(4, scenario.getQueries().size());
+        assertEquals(6, scenario.getNumberOfPatches());
+        final Set<XY> positions = new HashSet<>();
+        for (PersonInfo person : scenario.getPopulation()) {
+            assertTrue(scenario.getGrid().contains(person.getPosition()));
+            assertFalse(scenario.onObstacle(person.getPosition()));
+            assertTrue(positions.add(person.getPosition()));
+        }
+    }
+
+    @Test
+    public void testSinglePatch() throws IOException {
+        final Scenario scenario = new ObjectMapper().readValue(generate(
+            "--profile", "SINGLE_PATCH", "--persons", "100", "--width", "40", "--height", "20"
+        ), Scenario.class);
+        final Rectangle patch = new Rectangle(XY.ZERO, new XY(20, 10));
+        for (PersonInfo person : scenario.getPopulation()) {
+            assertTrue(patch.contains(person.getPosition()));
+        }
+    }
+
+    @Test
+    public void testAllInfectious() throws IOException {
+        final Scenario scenario = new ObjectMapper().readValue(generate(
+            "--profile", "ALL_INFECTIOUS", "--persons", "50"
+        ), Scenario.class);
+        for (PersonInfo person : scenario.getPopulation()) {
+            assertEquals(InfectionState.State.INFECTIOUS, person.getInfectionState().getState());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.generator.ScenarioGenerator;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.auto.Calibration;
+import com.pseuco.cp23.simulation.auto.Candidate;
+import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.tests.common.Checker;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestCalibration {
+
+    // enough work per tick for the concurrent engines, 4 patches and 100 ticks
+    private static Scenario generated() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ScenarioGenerator.fromArgs("--seed", "42", "--persons", "1000", "--ticks", "100").write(bytes);
+        return new ObjectMapper().readValue(new ByteArrayInputStream(bytes.toByteArray()), Scenario.class);
+    }
+
+    @Test
+    public void testMinimal() {
+        // too little work for the threads to pay off
+        final Calibration calibration = new Calibration(TestCase.getPublic("Minimal Example").getScenario(), 2);
+        assertEquals(1, calibration.getCandidates().size());
+        assertEquals(Candidate.Engine.SLUG, calibration.select().getEngine());
+    }
+
+    @Test
+    public void testWeLoveNP() {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final Candidate candidate = new Calibration(testCase.getScenario(), 2).select();
+        assertNotNull(candidate);
+        testCase.launchCandidate(candidate);
+    }
+
+    @Test
+    public void testCandidates() {
+        // every candidate simulates the same output
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        testCase.launchCandidate(new Candidate(Candidate.Engine.ROCKET, 7));
+        testCase.launchCandidate(new Candidate(Candidate.Engine.STARSHIP, 7));
+    }
+
+    @Test
+    public void testTiming() throws Exception {
+        final Scenario scenario = generated();
+        // a single tick keeps the calibration of the five candidates within a quarter of the ticks
+        final Calibration calibration = new Calibration(scenario, 1, 4);
+        assertEquals(5, calibration.getCandidates().size());
+        final Candidate candidate = calibration.select();
+
+        final Map<Candidate, Double> estimates = calibration.getEstimates();
+        assertEquals(5, estimates.size());
+        assertEquals(Collections.min(estimates.values()), estimates.get(candidate));
+
+        final Slug slug = new Slug(scenario);
+        slug.run();
+        final Simulation simulation = candidate.create(scenario);
+        simulation.run();
+        final Checker checker = new Checker();
+        checker.check(simulation.getOutput(), slug.getOutput());
+        for (String problem : checker.getProblems()) {
+            System.err.println(problem);
+        }
+        assertFalse("invalid output of " + candidate, checker.hasProblems());
+    }
+
+    @Test
+    public void testSkipped() throws Exception {
+        // calibrating two ticks would take more than a quarter of the ticks
+        final Calibration calibration = new Calibration(generated(), 2, 4);
+        final Candidate candidate = calibration.select();
+        assertTrue(calibration.getEstimates().isEmpty());
+        // the paddings are 7, 14 and 28 for the infection radius of 5
+        assertEquals(Candidate.Engine.ROCKET, candidate.getEngine());
+        assertEquals(14, candidate.getPadding());
+    }
+}
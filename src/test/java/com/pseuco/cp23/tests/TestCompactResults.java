@@ -0,0 +1,56 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.tests.common.TestCase;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+import org.junit.Test;
+
+public class TestCompactResults {
+
+    private static Scenario withoutTrace(Scenario scenario) {
+        return new Scenario(
+                scenario.getName(),
+                scenario.getParameters(),
+                scenario.getTicks(),
+                scenario.getGridSize(),
+                false,
+                scenario.getPartition(),
+                scenario.getObstacles(),
+                scenario.getQueries(),
+                scenario.getPopulation()
+        );
+    }
+
+    private static void check(String name, int padding) throws InsufficientPaddingException {
+        final TestCase testCase = TestCase.getPublic(name);
+        final Rocket rocket = new Rocket(withoutTrace(testCase.getScenario()), padding, new DummyValidator());
+        rocket.enableCompactResults();
+        rocket.run();
+        final Output output = rocket.getOutput();
+        assertTrue(output.getTrace().isEmpty());
+        assertEquals(testCase.getExpectedOutput().getStatistics(), output.getStatistics());
+    }
+
+    @Test
+    public void testWeLoveNP() throws InsufficientPaddingException {
+        check("we_love_np", 10);
+    }
+
+    @Test
+    public void testMinimal() throws InsufficientPaddingException {
+        check("Minimal Example", 10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTraced() throws InsufficientPaddingException {
+        new Rocket(TestCase.getPublic("Minimal Example").getScenario(), 10, new DummyValidator())
+                .enableCompactResults();
+    }
+}
@@ -80,6 +80,26 @@ public class TestCorrectness {
         TestCase.getPublic("Large Size (Long Term)2").launchRocket(40);
     }
 
+    @Test
+    public void testMediumStreaming (){
+        TestCase.getPublic("Medium Size").launchRocketStreaming(20);
+    }
+
+    @Test
+    public void testLargeStreaming (){
+        TestCase.getPublic("Large Size").launchRocketStreaming(20);
+    }
+
+    @Test
+    public void testLargeLongStreaming (){
+        TestCase.getPublic("Large Size (Long Term)").launchRocketStreaming(20);
+    }
+
+    @Test
+    public void testLargeLong2Streaming (){
+        TestCase.getPublic("Large Size (Long Term)2").launchRocketStreaming(20);
+    }
+
 
 
 
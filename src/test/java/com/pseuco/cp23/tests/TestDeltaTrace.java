@@ -0,0 +1,79 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.TraceEntry;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.tests.common.TestCase;
+import com.pseuco.cp23.trace.DeltaTrace;
+
+import org.junit.Test;
+
+public class TestDeltaTrace {
+    private static void assertSameTrace(List<TraceEntry> expected, List<TraceEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int tick = 0; tick < expected.size(); tick++) {
+            assertTrue(
+                "trace differs in tick " + tick,
+                expected.get(tick).getPopulation().equals(actual.get(tick).getPopulation())
+            );
+        }
+    }
+
+    @Test
+    public void testRoundtrip() throws Exception {
+        final List<TraceEntry> expected = TestCase.getPublic("we_love_np").getExpectedOutput().getTrace();
+        final DeltaTrace trace = new DeltaTrace(64);
+        expected.forEach(trace);
+        assertEquals(expected.size(), trace.size());
+
+        final List<TraceEntry> decoded = new ArrayList<>();
+        trace.forEach(decoded::add);
+        assertSameTrace(expected, decoded);
+
+        for (int tick : new int[] { 0, 1, 63, 64, 65, 200, expected.size() - 1 }) {
+            assertTrue(
+                "random access differs in tick " + tick,
+                expected.get(tick).getPopulation().equals(trace.getEntry(tick).getPopulation())
+            );
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trace.write(bytes);
+        final List<TraceEntry> read = new ArrayList<>();
+        DeltaTrace.read(new ByteArrayInputStream(bytes.toByteArray())).forEach(read::add);
+        assertSameTrace(expected, read);
+    }
+
+    @Test
+    public void testIrregular() throws Exception {
+        final List<TraceEntry> expected = new ArrayList<>(
+            TestCase.getPublic("we_love_np").getExpectedOutput().getTrace().subList(0, 20)
+        );
+        // a person teleporting and a tick missing do not follow the rules of the simulation
+        final List<PersonInfo> population = new ArrayList<>(expected.get(5).getPopulation());
+        final PersonInfo person = population.get(0);
+        population.set(0, new PersonInfo(
+                person.getName(),
+                person.getPosition().add(new XY(3, 0)),
+                person.getSeed(),
+                person.getInfectionState(),
+                person.getDirection()
+        ));
+        expected.set(5, new TraceEntry(population));
+        expected.remove(10);
+
+        final DeltaTrace trace = new DeltaTrace(1000);
+        expected.forEach(trace);
+        final List<TraceEntry> decoded = new ArrayList<>();
+        trace.forEach(decoded::add);
+        assertSameTrace(expected, decoded);
+    }
+}
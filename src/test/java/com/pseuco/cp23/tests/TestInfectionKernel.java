@@ -0,0 +1,108 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.generator.ScenarioGenerator;
+import com.pseuco.cp23.model.InfectionState;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.simulation.common.InfectionKernel;
+import com.pseuco.cp23.simulation.common.Person;
+import com.pseuco.cp23.simulation.common.PrefixSumInfectionKernel;
+import com.pseuco.cp23.simulation.common.ScalarInfectionKernel;
+import com.pseuco.cp23.simulation.slug.Slug;
+
+import org.junit.Test;
+
+public class TestInfectionKernel {
+    /**
+     * Generates a scenario where every fifth person is infectious.
+     */
+    private static Scenario generate(String... args) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ScenarioGenerator.fromArgs(args).write(bytes);
+        final Scenario scenario = new ObjectMapper().readValue(
+            new ByteArrayInputStream(bytes.toByteArray()), Scenario.class
+        );
+        final List<PersonInfo> population = new ArrayList<>();
+        for (PersonInfo info : scenario.getPopulation()) {
+            population.add(population.size() % 5 != 0 ? info : new PersonInfo(
+                    info.getName(),
+                    info.getPosition(),
+                    info.getSeed(),
+                    new InfectionState(InfectionState.State.INFECTIOUS, 0),
+                    info.getDirection()
+            ));
+        }
+        return new Scenario(
+                scenario.getName(),
+                scenario.getParameters(),
+                scenario.getTicks(),
+                scenario.getGridSize(),
+                scenario.getTrace(),
+                scenario.getPartition(),
+                scenario.getObstacles(),
+                scenario.getQueries(),
+                population
+        );
+    }
+
+    private static List<PersonInfo> spreadPairwise(Scenario scenario) {
+        final List<Person> population = new Slug(scenario).getPopulation();
+        final int infectionRadius = scenario.getParameters().getInfectionRadius();
+        for (int i = 0; i < population.size(); i++) {
+            for (int j = i + 1; j < population.size(); j++) {
+                final Person iPerson = population.get(i);
+                final Person jPerson = population.get(j);
+                final XY iPosition = iPerson.getPosition();
+                final XY jPosition = jPerson.getPosition();
+                final int distance = Math.abs(iPosition.getX() - jPosition.getX())
+                        + Math.abs(iPosition.getY() - jPosition.getY());
+                if (distance <= infectionRadius) {
+                    if (iPerson.isInfectious() && iPerson.isCoughing() && jPerson.isBreathing()) {
+                        jPerson.infect();
+                    }
+                    if (jPerson.isInfectious() && jPerson.isCoughing() && iPerson.isBreathing()) {
+                        iPerson.infect();
+                    }
+                }
+            }
+        }
+        return population.stream().map(Person::getInfo).collect(Collectors.toList());
+    }
+
+    private static List<PersonInfo> spread(Scenario scenario, InfectionKernel kernel) {
+        final List<Person> population = new Slug(scenario).getPopulation();
+        kernel.spread(population, scenario.getParameters().getInfectionRadius());
+        return population.stream().map(Person::getInfo).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testKernels() throws Exception {
+        for (int seed = 0; seed < 5; seed++) {
+            final Scenario scenario = generate(
+                "--seed", String.valueOf(seed), "--persons", "1003", "--width", "120", "--height", "90",
+                "--infected", "0", "--infection-radius", String.valueOf(1 + 4 * seed),
+                "--cough-threshold", "128"
+            );
+            final List<PersonInfo> expected = spreadPairwise(scenario);
+            assertTrue(
+                "the scenario should infect someone",
+                !expected.equals(new Slug(scenario).getPopulationInfo())
+            );
+            assertEquals(expected, spread(scenario, new ScalarInfectionKernel()));
+            assertEquals(expected, spread(scenario, InfectionKernel.createPairwise()));
+            assertEquals(expected, spread(scenario, new PrefixSumInfectionKernel()));
+            assertEquals(expected, spread(scenario, InfectionKernel.create()));
+        }
+    }
+}
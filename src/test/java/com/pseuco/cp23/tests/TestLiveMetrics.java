@@ -0,0 +1,71 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pseuco.cp23.metrics.LiveMetrics;
+import com.pseuco.cp23.metrics.MetricsServer;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.tests.common.TestCase;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+import org.junit.Test;
+
+public class TestLiveMetrics {
+
+    private static Map<String, Double> scrape(MetricsServer server) throws IOException {
+        final URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+        final String text;
+        try (InputStream body = url.openStream()) {
+            text = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        final Map<String, Double> samples = new HashMap<>();
+        for (String line : text.split("\n")) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            final int separator = line.lastIndexOf(' ');
+            samples.put(line.substring(0, separator), Double.parseDouble(line.substring(separator + 1)));
+        }
+        return samples;
+    }
+
+    @Test
+    public void testWeLoveNP() throws IOException, InsufficientPaddingException {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final Rocket rocket = new Rocket(testCase.getScenario(), 10, new DummyValidator());
+        final LiveMetrics live = rocket.enableLiveMetrics();
+        final MetricsServer server = new MetricsServer(live, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        try {
+            assertEquals(0.0, scrape(server).get("simulation_completed_ticks_total"), 0);
+            rocket.run();
+
+            final Map<String, Double> samples = scrape(server);
+            final int ticks = testCase.getScenario().getTicks();
+            assertEquals(ticks, samples.get("simulation_ticks"), 0);
+            assertEquals(ticks + 1, samples.get("simulation_completed_ticks_total"), 0);
+            assertEquals(0.0, samples.get("rocket_results_queue_depth"), 0);
+            assertEquals(ticks, samples.get("rocket_patch_tick{patch=\"0\"}"), 0);
+            assertTrue(samples.get("rocket_patch_sync_wait_seconds_total{patch=\"0\"}") >= 0);
+            assertTrue(samples.get("jvm_heap_used_bytes") > 0);
+
+            final double population = samples.get("simulation_population{state=\"susceptible\"}")
+                    + samples.get("simulation_population{state=\"infected\"}")
+                    + samples.get("simulation_population{state=\"infectious\"}")
+                    + samples.get("simulation_population{state=\"recovered\"}");
+            assertEquals(testCase.getScenario().getPopulation().size(), population, 0);
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.pseuco.cp23.tests;
+
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestOverlap {
+
+    @Test
+    public void testWeLoveNP10() {
+        TestCase.getPublic("we_love_np").launchRocket(10, Rocket::enableOverlap);
+    }
+
+    @Test
+    public void testWeLoveNP15() {
+        TestCase.getPublic("we_love_np").launchRocket(15, Rocket::enableOverlap);
+    }
+
+    @Test
+    public void testMinimal() {
+        TestCase.getPublic("Minimal Example").launchRocket(10, Rocket::enableOverlap);
+    }
+}
@@ -0,0 +1,84 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.simulation.rocket.PatchLayout;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.tests.common.Checker;
+import com.pseuco.cp23.tests.common.TestCase;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+import org.junit.Test;
+
+public class TestPatchLayout {
+
+    // a wall thicker than the infection radius along the east border of the second column of patches
+    private static final Rectangle WALL = new Rectangle(new XY(44, 0), new XY(6, 50));
+
+    private static Scenario walled() {
+        final Scenario scenario = TestCase.getPublic("we_love_np").getScenario();
+        return new Scenario(
+                scenario.getName(),
+                scenario.getParameters(),
+                100,
+                scenario.getGridSize(),
+                true,
+                scenario.getPartition(),
+                List.of(WALL),
+                scenario.getQueries(),
+                scenario.getPopulation().stream()
+                        .filter(person -> !WALL.contains(person.getPosition()))
+                        .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testWallBoundedPadding() throws InsufficientPaddingException {
+        final PatchLayout layout = PatchLayout.compute(walled(), 10);
+        for (int id = 0; id < layout.size(); id++) {
+            final Rectangle patch = layout.getPatchGrid(id);
+            final Rectangle padding = layout.getPaddingGrid(id);
+            if (patch.getBottomRight().getX() == 50) {
+                // nothing crosses the wall, hence, there is no padding behind it
+                assertEquals(50, padding.getBottomRight().getX());
+            } else if (patch.getTopLeft().getX() == 50) {
+                assertEquals(50, padding.getTopLeft().getX());
+            } else if (patch.getTopLeft().getX() == 75) {
+                // the padding towards the open side is unchanged
+                assertEquals(65, padding.getTopLeft().getX());
+            }
+            for (int neighbour : layout.getNeighbours(id)) {
+                assertFalse("patch " + id + " syncs with " + neighbour + " behind the wall",
+                        patch.getBottomRight().getX() <= 50 != layout.getPatchGrid(neighbour).getBottomRight().getX() <= 50);
+            }
+        }
+    }
+
+    @Test
+    public void testWalledOutput() throws InsufficientPaddingException {
+        final Scenario scenario = walled();
+        final Slug slug = new Slug(scenario);
+        slug.run();
+        for (int padding : new int[] { 7, 10, 20 }) {
+            final Rocket rocket = new Rocket(scenario, padding, new DummyValidator());
+            rocket.run();
+            final Output output = rocket.getOutput();
+            final Checker checker = new Checker();
+            checker.check(output, slug.getOutput());
+            for (String problem : checker.getProblems()) {
+                System.err.println(problem);
+            }
+            assertFalse("invalid output with padding " + padding, checker.hasProblems());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.output.PipelinedOutputWriter;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.tests.common.Checker;
+import com.pseuco.cp23.tests.common.TestCase;
+import com.pseuco.cp23.validator.DummyValidator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestPipelinedOutputWriter {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSlug() throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final File expected = this.folder.newFile();
+        final Slug reference = new Slug(TestCase.getPublic("we_love_np").getScenario());
+        reference.run();
+        objectMapper.writeValue(expected, reference.getOutput());
+
+        final Scenario scenario = TestCase.getPublic("we_love_np").getScenario();
+        final File actual = this.folder.newFile();
+        final Slug slug = new Slug(scenario);
+        final PipelinedOutputWriter writer = new PipelinedOutputWriter(objectMapper, actual, scenario, 2);
+        assertTrue(slug.setTraceListener(writer));
+        writer.start();
+        slug.run();
+        writer.finish(slug.getOutput().getStatistics());
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+    }
+
+    @Test
+    public void testRocket() throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final File expected = this.folder.newFile();
+        final Rocket reference = new Rocket(
+            TestCase.getPublic("we_love_np").getScenario(), 10, new DummyValidator()
+        );
+        reference.run();
+        objectMapper.writeValue(expected, reference.getOutput());
+
+        final Scenario scenario = TestCase.getPublic("we_love_np").getScenario();
+        final File actual = this.folder.newFile();
+        final Rocket rocket = new Rocket(scenario, 10, new DummyValidator());
+        final PipelinedOutputWriter writer = new PipelinedOutputWriter(objectMapper, actual, scenario, 2);
+        assertTrue(rocket.setTraceListener(writer));
+        writer.start();
+        rocket.run();
+        writer.finish(rocket.getOutput().getStatistics());
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+    }
+
+    @Test
+    public void testCompressed() throws Exception {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final File file = this.folder.newFile("output.json.gz");
+        final Slug slug = new Slug(testCase.getScenario());
+        final PipelinedOutputWriter writer = new PipelinedOutputWriter(
+            new ObjectMapper(), file, testCase.getScenario(), 2
+        );
+        assertTrue(slug.setTraceListener(writer));
+        writer.start();
+        slug.run();
+        writer.finish(slug.getOutput().getStatistics());
+
+        final Checker checker = new Checker();
+        checker.check(TestCase.readOutput(file), testCase.getExpectedOutput());
+        for (String problem : checker.getProblems()) {
+            System.err.println(problem);
+        }
+        assertFalse("invalid output", checker.hasProblems());
+    }
+}
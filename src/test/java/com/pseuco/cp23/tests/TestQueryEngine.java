@@ -0,0 +1,71 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.model.Query;
+import com.pseuco.cp23.model.Rectangle;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.XY;
+import com.pseuco.cp23.query.QueryEngine;
+import com.pseuco.cp23.query.RecordedRun;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestQueryEngine {
+    private static QueryEngine load(Output output) {
+        final RecordedRun run = new RecordedRun(output.getScenario().getGridSize());
+        output.getTrace().forEach(run);
+        return new QueryEngine(run);
+    }
+
+    @Test
+    public void testScenarioQueries() {
+        final Output output = TestCase.getPublic("we_love_np").getExpectedOutput();
+        final int last = output.getTrace().size() - 1;
+        final Map<String, List<Statistics>> statistics = load(output).query(
+            output.getScenario().getQueries(), 0, last
+        );
+        assertEquals(output.getStatistics(), statistics);
+    }
+
+    @Test
+    public void testRandomQueries() {
+        final Output output = TestCase.getPublic("we_love_np").getExpectedOutput();
+        final XY gridSize = output.getScenario().getGridSize();
+        final Random random = new Random(42);
+        // enough queries such that summed-area tables are used
+        final Map<String, Query> queries = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            final XY topLeft = new XY(random.nextInt(gridSize.getX() + 10) - 5, random.nextInt(gridSize.getY() + 10) - 5);
+            queries.put("query" + i, new Query(new Rectangle(topLeft, new XY(random.nextInt(40), random.nextInt(40)))));
+        }
+        final Map<String, Query> single = Map.of("query0", queries.get("query0"));
+
+        final QueryEngine engine = load(output);
+        final Map<String, List<Statistics>> statistics = engine.query(queries, 100, 150);
+        assertEquals(statistics.get("query0"), engine.query(single, 100, 150).get("query0"));
+        for (Map.Entry<String, Query> entry : queries.entrySet()) {
+            final Rectangle area = entry.getValue().getArea();
+            for (int tick = 100; tick <= 150; tick++) {
+                final long[] counts = new long[4];
+                for (PersonInfo info : output.getTrace().get(tick).getPopulation()) {
+                    if (area.contains(info.getPosition())) {
+                        counts[info.getInfectionState().getState().ordinal()]++;
+                    }
+                }
+                assertEquals(
+                    new Statistics(counts[0], counts[1], counts[2], counts[3]),
+                    statistics.get(entry.getKey()).get(tick - 100)
+                );
+            }
+        }
+    }
+}
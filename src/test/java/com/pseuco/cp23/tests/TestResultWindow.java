@@ -0,0 +1,27 @@
+package com.pseuco.cp23.tests;
+
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestResultWindow {
+
+    @Test
+    public void testWeLoveNP() {
+        // every patch waits for the aggregation after each tick
+        TestCase.getPublic("we_love_np").launchRocket(10, rocket -> rocket.setResultWindow(1));
+    }
+
+    @Test
+    public void testMinimal() {
+        TestCase.getPublic("Minimal Example").launchRocket(10, rocket -> rocket.setResultWindow(1));
+    }
+
+    @Test
+    public void testOverlap() {
+        TestCase.getPublic("we_love_np").launchRocket(15, rocket -> {
+            rocket.setResultWindow(2);
+            rocket.enableOverlap();
+        });
+    }
+}
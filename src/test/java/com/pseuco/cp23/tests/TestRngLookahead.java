@@ -0,0 +1,58 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import com.pseuco.cp23.model.PersonInfo;
+import com.pseuco.cp23.simulation.common.RngLookahead;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestRngLookahead {
+
+    @Test(timeout = 60000)
+    public void testDigests() throws NoSuchAlgorithmException {
+        final List<PersonInfo> population = TestCase.getPublic("Minimal Example").getScenario().getPopulation();
+        final RngLookahead lookahead = new RngLookahead(population, 8, 2);
+        lookahead.start();
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (int person = 0; person < population.size(); person++) {
+                byte[] expected = population.get(person).getSeed();
+                for (long index = 1; index <= 100; index++) {
+                    expected = messageDigest.digest(expected);
+                    byte[] digest;
+                    while ((digest = lookahead.get(person, index)) == null) {
+                        Thread.onSpinWait();
+                    }
+                    assertArrayEquals(expected, digest);
+                }
+                // digests which fell out of the window are missing
+                assertNull(lookahead.get(person, 1));
+            }
+        } finally {
+            lookahead.stop();
+        }
+    }
+
+    @Test
+    public void testSlug() {
+        TestCase.getPublic("we_love_np").runSlug(slug -> slug.enableRngLookahead(1, 32));
+    }
+
+    @Test
+    public void testRocket() {
+        TestCase.getPublic("we_love_np").launchRocket(10, rocket -> rocket.enableRngLookahead(2, 32));
+    }
+
+    @Test
+    public void testRocketSmallWindow() {
+        // lagging clones in the paddings miss their digests and hash them themselves
+        TestCase.getPublic("we_love_np").launchRocket(10, rocket -> rocket.enableRngLookahead(1, 2));
+    }
+}
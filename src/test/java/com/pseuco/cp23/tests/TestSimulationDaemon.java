@@ -0,0 +1,96 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.daemon.SimulationDaemon;
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.tests.common.Checker;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSimulationDaemon {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimulationDaemon daemon;
+
+    @Before
+    public void start() throws IOException {
+        this.daemon = SimulationDaemon.fromArgs("--port", "0", "--warmup", "false");
+        this.daemon.start();
+    }
+
+    @After
+    public void stop() {
+        this.daemon.stop(0);
+    }
+
+    private HttpURLConnection post(String query, String scenario) throws IOException {
+        final URL url = new URL("http://127.0.0.1:" + this.daemon.getAddress().getPort() + "/simulate?" + query);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream body = connection.getOutputStream();
+                InputStream resource = TestSimulationDaemon.class.getClassLoader()
+                        .getResourceAsStream("scenarios/public/" + scenario + ".json")) {
+            resource.transferTo(body);
+        }
+        return connection;
+    }
+
+    private void simulate(String query, String scenario) throws IOException {
+        final HttpURLConnection connection = this.post(query, scenario);
+        assertEquals(200, connection.getResponseCode());
+        final Output output;
+        try (InputStream body = connection.getInputStream()) {
+            output = objectMapper.readValue(body, Output.class);
+        }
+        final Checker checker = new Checker();
+        checker.check(output, TestCase.getPublic(scenario).getExpectedOutput());
+        for (String problem : checker.getProblems()) {
+            System.err.println(problem);
+        }
+        assertFalse("invalid output", checker.hasProblems());
+    }
+
+    private Map<?, ?> status() throws IOException {
+        final URL url = new URL("http://127.0.0.1:" + this.daemon.getAddress().getPort() + "/status");
+        try (InputStream body = url.openStream()) {
+            return objectMapper.readValue(body, Map.class);
+        }
+    }
+
+    @Test
+    public void testRocketReusesLayout() throws IOException {
+        this.simulate("engine=rocket&padding=10", "we_love_np");
+        this.simulate("engine=rocket&padding=10", "we_love_np");
+        this.simulate("engine=rocket&padding=15", "we_love_np");
+        final Map<?, ?> status = this.status();
+        assertEquals(3, ((Number) status.get("completedJobs")).intValue());
+        assertEquals(1, ((Number) status.get("layoutHits")).intValue());
+        assertEquals(2, ((Number) status.get("layoutMisses")).intValue());
+    }
+
+    @Test
+    public void testSlug() throws IOException {
+        this.simulate("engine=slug", "Minimal Example");
+    }
+
+    @Test
+    public void testBadRequests() throws IOException {
+        assertEquals(400, this.post("engine=warp", "we_love_np").getResponseCode());
+        assertEquals(400, this.post("padding=0", "we_love_np").getResponseCode());
+        assertEquals(0, ((Number) this.status().get("completedJobs")).intValue());
+    }
+}
@@ -0,0 +1,65 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.generator.ScenarioGenerator;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.rocket.Starship;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.tests.common.Checker;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestStarship {
+
+    @Test
+    public void testWeLoveNP() {
+        TestCase.getPublic("we_love_np").launchStarship(10, starship -> {
+        });
+    }
+
+    @Test
+    public void testMinimal() {
+        TestCase.getPublic("Minimal Example").launchStarship(10, starship -> {
+        });
+    }
+
+    @Test
+    public void testNarrowWindow() {
+        // the patches may only run a single tick ahead, hence, the gvt moves every tick
+        TestCase.getPublic("we_love_np").launchStarship(0, starship -> starship.setWindow(1));
+    }
+
+    @Test
+    public void testRollbacks() throws Exception {
+        // dense enough that infections cross the borders of the patches, which the patches can't guess
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ScenarioGenerator.fromArgs(
+                "--seed", "23", "--persons", "2000", "--width", "200", "--height", "100",
+                "--patches-x", "4", "--patches-y", "2", "--ticks", "150", "--trace", "true", "--infected", "0.05"
+        ).write(bytes);
+        final Scenario scenario = new ObjectMapper().readValue(
+            new ByteArrayInputStream(bytes.toByteArray()), Scenario.class
+        );
+
+        final Slug slug = new Slug(scenario);
+        slug.run();
+        // the run is several windows long, hence, the patches collect their fossils during the run
+        final Starship starship = new Starship(scenario, 10);
+        starship.run();
+
+        final Checker checker = new Checker();
+        checker.check(starship.getOutput(), slug.getOutput());
+        for (String problem : checker.getProblems()) {
+            System.err.println(problem);
+        }
+        assertFalse("invalid output", checker.hasProblems());
+        assertTrue("no patch rolled back", starship.getRollbacks() > 0);
+    }
+}
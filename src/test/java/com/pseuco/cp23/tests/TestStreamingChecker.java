@@ -0,0 +1,64 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Parameters;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.sweep.Sweep;
+import com.pseuco.cp23.simulation.sweep.Variant;
+import com.pseuco.cp23.tests.common.StreamingChecker;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestStreamingChecker {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWeLoveNP() {
+        TestCase.getPublic("we_love_np").launchRocketStreaming(10);
+    }
+
+    @Test
+    public void testMismatches() throws Exception {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final Scenario scenario = testCase.getScenario();
+        final Parameters parameters = scenario.getParameters();
+        // persons move differently after tick 200
+        final Parameters other = new Parameters(
+                parameters.getCoughThreshold(),
+                parameters.getBreathThreshold(),
+                parameters.getAccelerationDivisor() + 1,
+                parameters.getRecoveryTime(),
+                parameters.getInfectionRadius(),
+                parameters.getIncubationTime()
+        );
+        final Map<String, Output> outputs = new Sweep(scenario, 200, List.of(new Variant("other", other))).run();
+        final File file = this.folder.newFile();
+        new ObjectMapper().writeValue(file, outputs.get("other"));
+        final byte[] expected = new ObjectMapper().writeValueAsBytes(testCase.getExpectedOutput());
+
+        final List<String> problems = StreamingChecker.check(
+            new FileInputStream(file), new ByteArrayInputStream(expected), 7
+        );
+        assertEquals(7, problems.size());
+        assertTrue(problems.get(0), problems.get(0).contains("tick 201"));
+
+        final List<String> none = StreamingChecker.check(
+            new ByteArrayInputStream(expected), new ByteArrayInputStream(expected), 7
+        );
+        assertTrue(none.toString(), none.isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Parameters;
+import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.simulation.sweep.Sweep;
+import com.pseuco.cp23.simulation.sweep.Variant;
+import com.pseuco.cp23.tests.common.Checker;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestSweep {
+    @Test
+    public void testWeLoveNP() throws Exception {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final Scenario scenario = testCase.getScenario();
+        final Parameters parameters = scenario.getParameters();
+        final Parameters isolated = new Parameters(
+                0,
+                parameters.getBreathThreshold(),
+                parameters.getAccelerationDivisor(),
+                parameters.getRecoveryTime(),
+                parameters.getInfectionRadius(),
+                parameters.getIncubationTime()
+        );
+
+        final Map<String, Output> outputs = new Sweep(scenario, 200, List.of(
+                new Variant("baseline", parameters),
+                new Variant("isolated", isolated)
+        )).run();
+
+        final Checker checker = new Checker();
+        checker.check(outputs.get("baseline"), testCase.getExpectedOutput());
+        for (String problem : checker.getProblems()) {
+            System.err.println(problem);
+        }
+        assertFalse("invalid output", checker.hasProblems());
+
+        final Output output = outputs.get("isolated");
+        assertEquals(scenario.getTicks() + 1, output.getTrace().size());
+        for (int tick = 0; tick <= 200; tick++) {
+            assertTrue(
+                "prefix differs in tick " + tick,
+                testCase.getExpectedOutput().getTrace().get(tick).getPopulation().equals(
+                    output.getTrace().get(tick).getPopulation()
+                )
+            );
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.pseuco.cp23.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Output;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TickResult;
+import com.pseuco.cp23.output.NdjsonSink;
+import com.pseuco.cp23.simulation.common.Simulation;
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.simulation.slug.Slug;
+import com.pseuco.cp23.tests.common.TestCase;
+import com.pseuco.cp23.validator.DummyValidator;
+import com.pseuco.cp23.validator.InsufficientPaddingException;
+
+import org.junit.Test;
+
+public class TestTickPublisher {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Collects the results and cancels after a number of them.
+     */
+    private static class Collector implements Flow.Subscriber<TickResult> {
+        private final long initial;
+        private final int limit;
+
+        final List<TickResult> results = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed = false;
+
+        Collector(long initial, int limit) {
+            this.initial = initial;
+            this.limit = limit;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(this.initial);
+        }
+
+        @Override
+        public synchronized void onNext(TickResult result) {
+            this.results.add(result);
+            if (this.results.size() == this.limit) {
+                this.subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+        synchronized int size() {
+            return this.results.size();
+        }
+    }
+
+    private static void checkStatistics(List<TickResult> results, Map<String, List<Statistics>> expected) {
+        for (TickResult result : results) {
+            for (Map.Entry<String, List<Statistics>> query : expected.entrySet()) {
+                assertEquals(
+                        "tick " + result.getTick(),
+                        query.getValue().get(result.getTick()),
+                        result.getStatistics().get(query.getKey())
+                );
+            }
+        }
+    }
+
+    private static Rocket rocket(TestCase testCase) {
+        try {
+            return new Rocket(testCase.getScenario(), 10, new DummyValidator());
+        } catch (InsufficientPaddingException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    private static void testComplete(TestCase testCase, Simulation simulation) {
+        final Collector collector = new Collector(Long.MAX_VALUE, -1);
+        simulation.publishResults(false).subscribe(collector);
+        simulation.run();
+
+        final Output expected = testCase.getExpectedOutput();
+        assertEquals(testCase.getScenario().getTicks() + 1, collector.results.size());
+        for (int tick = 0; tick < collector.results.size(); tick++) {
+            assertEquals(tick, collector.results.get(tick).getTick());
+        }
+        checkStatistics(collector.results, expected.getStatistics());
+        assertTrue(collector.completed);
+    }
+
+    @Test
+    public void testSlug() {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        testComplete(testCase, new Slug(testCase.getScenario()));
+    }
+
+    @Test
+    public void testRocket() {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        testComplete(testCase, rocket(testCase));
+    }
+
+    @Test
+    public void testRocketCancel() {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final Rocket rocket = rocket(testCase);
+        final Collector collector = new Collector(1000, 51);
+        rocket.publishResults(false).subscribe(collector);
+        rocket.run();
+
+        // nothing is delivered after cancelling
+        assertEquals(51, collector.results.size());
+        assertFalse(collector.completed);
+        checkStatistics(collector.results, testCase.getExpectedOutput().getStatistics());
+
+        // the output covers at least the delivered ticks and agrees with the reference
+        final Map<String, List<Statistics>> statistics = rocket.getOutput().getStatistics();
+        for (Map.Entry<String, List<Statistics>> query : statistics.entrySet()) {
+            final List<Statistics> reference = testCase.getExpectedOutput().getStatistics().get(query.getKey());
+            assertTrue(query.getValue().size() >= 51);
+            assertTrue(query.getValue().size() < reference.size());
+            assertEquals(reference.subList(0, query.getValue().size()), query.getValue());
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testBackpressure() throws InterruptedException {
+        final TestCase testCase = TestCase.getPublic("we_love_np");
+        final Slug slug = new Slug(testCase.getScenario());
+        final Collector collector = new Collector(5, -1);
+        slug.publishResults(false).subscribe(collector);
+        final Thread thread = new Thread(slug);
+        thread.start();
+
+        // the engine waits for demand after five results
+        thread.join(500);
+        assertTrue(thread.isAlive());
+        assertEquals(5, collector.size());
+
+        collector.subscription.cancel();
+        thread.join();
+        assertEquals(5, collector.size());
+        // the sixth tick was simulated but never delivered
+        assertEquals(6, slug.getOutput().getStatistics().values().iterator().next().size());
+    }
+
+    @Test
+    public void testNdjsonSink() throws IOException {
+        final TestCase testCase = TestCase.getPublic("Minimal Example");
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final NdjsonSink sink = new NdjsonSink(objectMapper, stream, 4);
+        final Rocket rocket = rocket(testCase);
+        rocket.publishResults(true).subscribe(sink);
+        rocket.run();
+        sink.checkError();
+
+        final String[] lines = stream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(testCase.getScenario().getTicks() + 1, lines.length);
+        final List<TickResult> results = new ArrayList<>();
+        for (String line : lines) {
+            final TickResult result = objectMapper.readValue(line, TickResult.class);
+            assertNotNull(result.getTrace());
+            results.add(result);
+        }
+        checkStatistics(results, testCase.getExpectedOutput().getStatistics());
+    }
+}
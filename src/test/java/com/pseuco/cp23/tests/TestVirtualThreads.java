@@ -0,0 +1,27 @@
+package com.pseuco.cp23.tests;
+
+import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.tests.common.TestCase;
+
+import org.junit.Test;
+
+public class TestVirtualThreads {
+
+    @Test
+    public void testWeLoveNP10() {
+        TestCase.getPublic("we_love_np").launchRocket(10, Rocket::enableVirtualThreads);
+    }
+
+    @Test
+    public void testMinimal() {
+        TestCase.getPublic("Minimal Example").launchRocket(10, Rocket::enableVirtualThreads);
+    }
+
+    @Test
+    public void testOverlap() {
+        TestCase.getPublic("we_love_np").launchRocket(15, rocket -> {
+            rocket.enableVirtualThreads();
+            rocket.enableOverlap();
+        });
+    }
+}
@@ -39,7 +39,7 @@ public class Checker {
         this.compareStatistics(output.getStatistics(), expected.getStatistics());
     }
 
-    private void compareStatistics(
+    void compareStatistics(
             final Map<String, List<Statistics>> statistics,
             final Map<String, List<Statistics>> expected) {
         final Set<String> queryKeys = new HashSet<>();
@@ -94,7 +94,7 @@ public class Checker {
         }
     }
 
-    private void comparePopulation(final List<PersonInfo> population, final List<PersonInfo> expected, final int tick) {
+    void comparePopulation(final List<PersonInfo> population, final List<PersonInfo> expected, final int tick) {
         if (population.size() != expected.size()) {
             this.addProblem(
                 "expected population of size %d but got population of size %d in tick %d", expected.size(), population
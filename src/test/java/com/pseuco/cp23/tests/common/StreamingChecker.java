@@ -0,0 +1,286 @@
+package com.pseuco.cp23.tests.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pseuco.cp23.model.Statistics;
+import com.pseuco.cp23.model.TraceEntry;
+
+/**
+ * Compares an output to a reference without materializing either of them.
+ *
+ * <p>
+ * The reference is parsed tick by tick while the trace entries of the output are handed
+ * to the checker, either by an engine as its trace listener or parsed from a file. The
+ * entries are compared in chunks on worker threads. Checking stops once the given number
+ * of problems is found. The problems are reported in the same format as <em>Checker</em>.
+ * </p>
+ */
+public class StreamingChecker implements Consumer<TraceEntry>, AutoCloseable {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final int CHUNK_SIZE = 32;
+
+    /**
+     * An output file positioned inside its trace.
+     */
+    private static class OutputParser implements AutoCloseable {
+        private final JsonParser parser;
+
+        private Map<String, List<Statistics>> statistics = null;
+        private boolean inTrace = false;
+
+        private OutputParser(InputStream stream) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(stream);
+            if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("expected an output object");
+            }
+            this.inTrace = this.skipTo("trace");
+        }
+
+        /**
+         * Skips top-level fields until the given array field, stores the statistics.
+         *
+         * @return Whether the field has been found.
+         */
+        private boolean skipTo(String field) throws IOException {
+            while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = this.parser.getCurrentName();
+                this.parser.nextToken();
+                if (name.equals(field)) {
+                    return true;
+                } else if (name.equals("stats")) {
+                    this.statistics = this.parser.readValueAs(
+                        new TypeReference<Map<String, List<Statistics>>>() {}
+                    );
+                } else {
+                    this.parser.skipChildren();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the next entry of the trace or <em>null</em> at its end.
+         */
+        private TraceEntry next() throws IOException {
+            if (!this.inTrace || this.parser.nextToken() != JsonToken.START_OBJECT) {
+                this.inTrace = false;
+                return null;
+            }
+            return this.parser.readValueAs(TraceEntry.class);
+        }
+
+        /**
+         * Skips the next entry of the trace.
+         *
+         * @return Whether there has been an entry.
+         */
+        private boolean skip() throws IOException {
+            if (!this.inTrace || this.parser.nextToken() != JsonToken.START_OBJECT) {
+                this.inTrace = false;
+                return false;
+            }
+            this.parser.skipChildren();
+            return true;
+        }
+
+        /**
+         * Skips the remaining trace and returns the statistics.
+         */
+        private Map<String, List<Statistics>> finish() throws IOException {
+            while (this.skip()) {
+                // skip the remaining trace
+            }
+            if (this.statistics == null && this.skipTo("stats")) {
+                this.statistics = this.parser.readValueAs(
+                    new TypeReference<Map<String, List<Statistics>>>() {}
+                );
+            }
+            if (this.statistics == null) {
+                throw new IOException("the output has no statistics");
+            }
+            return this.statistics;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.parser.close();
+        }
+    }
+
+    private final OutputParser expected;
+    private final int maxProblems;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final Deque<Future<List<String>>> inFlight = new ArrayDeque<>();
+
+    private final List<String> problems = new ArrayList<>();
+
+    private List<TraceEntry> chunk = new ArrayList<>();
+    private List<TraceEntry> expectedChunk = new ArrayList<>();
+    private int chunkStart = 0;
+    private int length = 0;
+    private int expectedLength = 0;
+
+    /**
+     * Constructs a checker comparing to the given reference.
+     *
+     * @param expected    The reference output, closed by the checker.
+     * @param maxProblems The number of problems after which checking stops.
+     * @throws IOException If the reference cannot be parsed.
+     */
+    public StreamingChecker(InputStream expected, int maxProblems) throws IOException {
+        this.expected = new OutputParser(expected);
+        this.maxProblems = maxProblems;
+        final int threads = Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.maxInFlight = 2 * threads;
+    }
+
+    /**
+     * Compares two output files.
+     *
+     * @param output      The output to check, closed by the checker.
+     * @param expected    The reference output, closed by the checker.
+     * @param maxProblems The number of problems after which checking stops.
+     * @return The problems found.
+     * @throws IOException If either output cannot be parsed.
+     */
+    public static List<String> check(InputStream output, InputStream expected, int maxProblems)
+            throws IOException {
+        try (StreamingChecker checker = new StreamingChecker(expected, maxProblems);
+                OutputParser parser = new OutputParser(output)) {
+            TraceEntry entry;
+            while (!checker.isSaturated() && (entry = parser.next()) != null) {
+                checker.accept(entry);
+            }
+            // the remaining entries are only counted
+            while (parser.skip()) {
+                checker.length++;
+            }
+            return checker.finish(parser.finish());
+        }
+    }
+
+    private boolean isSaturated() {
+        return this.problems.size() >= this.maxProblems;
+    }
+
+    private void addProblems(List<String> problems) {
+        for (String problem : problems) {
+            if (this.isSaturated()) {
+                return;
+            }
+            this.problems.add(problem);
+        }
+    }
+
+    /**
+     * Compares the next entry of the trace to the reference.
+     *
+     * @param entry The entry of the next tick.
+     */
+    @Override
+    public void accept(TraceEntry entry) {
+        this.length++;
+        if (this.isSaturated()) {
+            return;
+        }
+        try {
+            final TraceEntry expectedEntry = this.expected.next();
+            if (expectedEntry == null) {
+                return;
+            }
+            this.expectedLength++;
+            this.chunk.add(entry);
+            this.expectedChunk.add(expectedEntry);
+            if (this.chunk.size() == CHUNK_SIZE) {
+                this.submit();
+            }
+        } catch (IOException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    private void submit() {
+        if (this.chunk.isEmpty()) {
+            return;
+        }
+        if (this.inFlight.size() == this.maxInFlight) {
+            this.collect();
+        }
+        final List<TraceEntry> chunk = this.chunk;
+        final List<TraceEntry> expectedChunk = this.expectedChunk;
+        final int start = this.chunkStart;
+        this.inFlight.add(this.executor.submit(() -> {
+            final Checker checker = new Checker();
+            for (int i = 0; i < chunk.size(); i++) {
+                checker.comparePopulation(
+                    chunk.get(i).getPopulation(), expectedChunk.get(i).getPopulation(), start + i
+                );
+            }
+            return checker.getProblems();
+        }));
+        this.chunkStart += chunk.size();
+        this.chunk = new ArrayList<>();
+        this.expectedChunk = new ArrayList<>();
+    }
+
+    /**
+     * Waits for the oldest chunk and records its problems.
+     */
+    private void collect() {
+        try {
+            this.addProblems(this.inFlight.remove().get());
+        } catch (InterruptedException | ExecutionException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    /**
+     * Completes the comparison after the last entry of the trace.
+     *
+     * @param statistics The statistics of the output.
+     * @return The problems found.
+     * @throws IOException If the reference cannot be parsed.
+     */
+    public List<String> finish(Map<String, List<Statistics>> statistics) throws IOException {
+        this.submit();
+        while (!this.inFlight.isEmpty()) {
+            this.collect();
+        }
+        while (this.expected.skip()) {
+            this.expectedLength++;
+        }
+        final Checker checker = new Checker();
+        if (this.length != this.expectedLength && !this.isSaturated()) {
+            checker.getProblems().add(String.format(
+                "expected trace of length %d but got trace of length %d", this.expectedLength, this.length
+            ));
+        }
+        checker.compareStatistics(statistics, this.expected.finish());
+        this.addProblems(checker.getProblems());
+        return this.problems;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.executor.shutdownNow();
+        this.expected.close();
+    }
+}
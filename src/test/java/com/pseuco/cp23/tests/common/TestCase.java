@@ -1,13 +1,22 @@
 package com.pseuco.cp23.tests.common;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pseuco.cp23.model.Output;
 import com.pseuco.cp23.model.Scenario;
+import com.pseuco.cp23.output.OutputFiles;
+import com.pseuco.cp23.simulation.auto.Candidate;
+import com.pseuco.cp23.simulation.common.Simulation;
 import com.pseuco.cp23.simulation.rocket.Rocket;
+import com.pseuco.cp23.simulation.rocket.Starship;
 import com.pseuco.cp23.simulation.slug.Slug;
 import com.pseuco.cp23.validator.DummyValidator;
 import com.pseuco.cp23.validator.InsufficientPaddingException;
@@ -18,18 +27,28 @@ public class TestCase {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final int MAX_PROBLEMS = 100;
+
     private final Scenario scenario;
-    private final Output output;
+    private final String resultPath;
+    private Output output = null;
 
     private TestCase(final String name, final String category) {
         try {
             this.scenario = objectMapper.readValue(loader
                     .getResourceAsStream("scenarios/" + category + "/" + name + ".json"), Scenario.class);
-            this.output = objectMapper.readValue(loader
-                    .getResourceAsStream("scenarios/" + category + "/" + name + ".result.json"), Output.class);
         } catch (final IOException error) {
             throw new RuntimeException(error);
         }
+        this.resultPath = "scenarios/" + category + "/" + name + ".result.json";
+    }
+
+    private InputStream openResult() {
+        final InputStream stream = loader.getResourceAsStream(this.resultPath);
+        if (stream == null) {
+            throw new RuntimeException("missing reference result `" + this.resultPath + "`");
+        }
+        return stream;
     }
 
     static public TestCase getPublic(String name) {
@@ -40,20 +59,42 @@ public class TestCase {
         return new TestCase(name, "secret");
     }
 
+    static public Output readOutput(File file) {
+        try {
+            return OutputFiles.read(objectMapper, file);
+        } catch (final IOException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
     public Scenario getScenario() {
         return this.scenario;
     }
 
     public Output getExpectedOutput() {
+        if (this.output == null) {
+            try {
+                this.output = objectMapper.readValue(this.openResult(), Output.class);
+            } catch (final IOException error) {
+                throw new RuntimeException(error);
+            }
+        }
         return this.output;
     }
 
     public Checker runSlug() {
+        return this.runSlug(slug -> {
+        });
+    }
+
+    // configures the slug before it is run, e.g., to enable the rng lookahead
+    public Checker runSlug(Consumer<Slug> options) {
         final Slug slug = new Slug(this.scenario);
+        options.accept(slug);
         slug.run();
         final Output output = slug.getOutput();
         final Checker checker = new Checker();
-        checker.check(output, this.output);
+        checker.check(output, this.getExpectedOutput());
         for (String problem : checker.getProblems()) {
             System.err.println(problem);
         }
@@ -63,16 +104,7 @@ public class TestCase {
 
     public Checker launchRocket(Validator validator, int padding) {
         try {
-            final Rocket rocket = new Rocket(this.scenario, padding, validator);
-            rocket.run();
-            final Output output = rocket.getOutput();
-            final Checker checker = new Checker();
-            checker.check(output, this.output);
-            for (String problem : checker.getProblems()) {
-                System.err.println(problem);
-            }
-            assertFalse("invalid output", checker.hasProblems());
-            return checker;
+            return this.check(new Rocket(this.scenario, padding, validator));
         } catch (InsufficientPaddingException error) {
             throw new RuntimeException(error);
         }
@@ -82,4 +114,59 @@ public class TestCase {
         return this.launchRocket(new DummyValidator(), padding);
     }
 
-}
\ No newline at end of file
+    // configures the rocket before it is launched, e.g., `Rocket::enableOverlap`
+    public Checker launchRocket(int padding, Consumer<Rocket> options) {
+        try {
+            final Rocket rocket = new Rocket(this.scenario, padding, new DummyValidator());
+            options.accept(rocket);
+            return this.check(rocket);
+        } catch (InsufficientPaddingException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    // configures the starship before it is launched, e.g., to bound its window
+    public Checker launchStarship(int padding, Consumer<Starship> options) {
+        final Starship starship = new Starship(this.scenario, padding);
+        options.accept(starship);
+        return this.check(starship);
+    }
+
+    // launches the engine a calibration has chosen
+    public Checker launchCandidate(Candidate candidate) {
+        try {
+            return this.check(candidate.create(this.scenario));
+        } catch (InsufficientPaddingException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    private Checker check(Simulation simulation) {
+        simulation.run();
+        final Output output = simulation.getOutput();
+        final Checker checker = new Checker();
+        checker.check(output, this.getExpectedOutput());
+        for (String problem : checker.getProblems()) {
+            System.err.println(problem);
+        }
+        assertFalse("invalid output", checker.hasProblems());
+        return checker;
+    }
+
+    // compares the trace to the reference while the rocket runs, keeps neither in memory
+    public List<String> launchRocketStreaming(int padding) {
+        try (StreamingChecker checker = new StreamingChecker(this.openResult(), MAX_PROBLEMS)) {
+            final Rocket rocket = new Rocket(this.scenario, padding, new DummyValidator());
+            rocket.setTraceListener(checker);
+            rocket.run();
+            final List<String> problems = checker.finish(rocket.getOutput().getStatistics());
+            for (String problem : problems) {
+                System.err.println(problem);
+            }
+            assertTrue("invalid output", problems.isEmpty());
+            return problems;
+        } catch (InsufficientPaddingException | IOException error) {
+            throw new RuntimeException(error);
+        }
+    }
+}